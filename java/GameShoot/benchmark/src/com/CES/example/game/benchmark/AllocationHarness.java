@@ -0,0 +1,120 @@
+package com.CES.example.game.benchmark;
+
+import java.lang.management.ManagementFactory;
+
+import com.CES.example.game.GameWorld;
+import com.CES.example.game.Player;
+import com.CES.example.game.WorldSnapshot;
+
+/**
+ * 游戏中每一帧不分配对象的检验程序。无界面地运行GameWorld，每个游戏中的帧
+ * 推进一个逻辑帧并填充快照，用HotSpot的线程分配计数检查这一帧有没有分配对象。
+ * <P/>
+ * 先运行一段时间让对象池，EntityList和快照的数组增长到稳定的大小，之后的帧
+ * 都不应该再分配。玩家左右移动并定时使用炸弹；一局结束后重新开始，开始新的
+ * 一局不计入检查。绘制部分需要Canvas，只能在设备上检查。
+ * <P/>
+ * 需要HotSpot的com.sun.management.ThreadMXBean，在桌面JVM上直接运行即可，
+ * 有分配的帧时以非0值退出。C2编译的代码去优化时JVM自己会在这个线程上分配
+ * 少量对象，与游戏代码无关，所以要只用C1或者解释执行：
+ * <pre>
+ * java -XX:TieredStopAtLevel=1 com.CES.example.game.benchmark.AllocationHarness [检查的帧数] [预热的帧数]
+ * </pre>
+ *
+ * @author Hong
+ *
+ */
+public class AllocationHarness {
+
+	// 最多输出的有分配的帧数
+	private final static int MAX_REPORTS = 10;
+
+	private static com.sun.management.ThreadMXBean threads;
+	private static long threadId;
+
+	public static void main(String[] args) {
+		int frames = (args.length > 0)? Integer.parseInt(args[0]) : 20000;
+		int warmup = (args.length > 1)? Integer.parseInt(args[1]) : 20000;
+
+		threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if(!threads.isThreadAllocatedMemorySupported()) {
+			System.out.println("Thread allocation counting is not supported.");
+			System.exit(2);
+		}
+		threads.setThreadAllocatedMemoryEnabled(true);
+		threadId = Thread.currentThread().getId();
+
+		GameWorld world = new GameWorld(BenchmarkSupport.createContext());
+		WorldSnapshot snapshot = new WorldSnapshot();
+		world.start();
+		for(int i = 0; i < warmup; i++)
+			frame(world, snapshot, i);
+		long overhead = calibrate();
+
+		int played = 0, failed = 0;
+		long bytes = 0;
+		for(int i = 0; i < frames; i++) {
+			if(world.isOver()) {
+				world.start();
+				continue;
+			}
+			long before = allocated();
+			frame(world, snapshot, warmup + i);
+			long size = allocated() - before - overhead;
+			played++;
+			if(size > 0) {
+				if(failed < MAX_REPORTS)
+					System.out.println("Frame " + (warmup + i) + " (tick " 
+							+ world.getTickCount() + ") allocated " + size 
+							+ " bytes");
+				failed++;
+				bytes += size;
+			}
+		}
+
+		System.out.println(played + " play frames checked, " + failed 
+				+ " allocated, " + bytes + " bytes in total");
+		if(failed > 0) {
+			System.out.println("Run with -XX:TieredStopAtLevel=1 or -Xint to rule "
+					+ "out allocations made by C2 deoptimization.");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * 一个游戏中的帧：玩家移动，定时使用炸弹，推进逻辑帧并填充快照。
+	 * 一局结束时重新开始。
+	 */
+	private static void frame(GameWorld world, WorldSnapshot snapshot, int n) {
+		if(world.isOver()) {
+			world.start();
+			return;
+		}
+		Player player = world.getPlayer();
+		player.move(((n / 40) % 2 == 0)? 3 : -3, 0);
+		if(n % 300 == 299)
+			world.useBomb();
+		world.tick();
+		snapshot.clear();
+		world.snapshot(snapshot);
+	}
+
+	/**
+	 * 读取分配计数本身可能分配对象，取连续两次读取之差的最小值作为这部分开销。
+	 */
+	private static long calibrate() {
+		long min = Long.MAX_VALUE;
+		for(int i = 0; i < 1000; i++) {
+			long before = allocated();
+			long size = allocated() - before;
+			if(size < min)
+				min = size;
+		}
+		return min;
+	}
+
+	private static long allocated() {
+		return threads.getThreadAllocatedBytes(threadId);
+	}
+
+}
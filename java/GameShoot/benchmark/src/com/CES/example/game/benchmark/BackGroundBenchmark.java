@@ -0,0 +1,79 @@
+package com.CES.example.game.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.microedition.lcdui.game.TiledLayer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+import com.CES.example.game.BackGround;
+
+/**
+ * 背景滚动与TiledLayer绘制的基准测试，绘制在一个什么都不画的画布上，
+ * 只测量绘制代码本身的开销。
+ * <P/>
+ * 需要真正的Bitmap和Canvas，只能在设备上运行，见BenchmarkSupport。
+ *
+ * @author Hong
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackGroundBenchmark {
+
+	private BackGround backGround;
+	private TiledLayer layer;
+	private Canvas canvas;
+
+	@Setup
+	public void setup() {
+		// 与assets中的background.png一样大
+		Bitmap image = Bitmap.createBitmap(480, 850, Bitmap.Config.ARGB_8888);
+		backGround = new BackGround(image, BenchmarkSupport.SCREEN_WIDTH,
+				BenchmarkSupport.SCREEN_HEIGHT, 5);
+
+		int columns = BenchmarkSupport.SCREEN_WIDTH / 40 + 1;
+		int rows = BenchmarkSupport.SCREEN_HEIGHT / 50 + 2;
+		layer = new TiledLayer(columns, rows, image, 40, 50);
+		for(int i = 0; i < rows; i++) {
+			for(int j = 0; j < columns; j++)
+				layer.setCell(j, i, (i % 17) * 12 + (j % 12) + 1);
+		}
+
+		canvas = new BenchmarkSupport.NoopCanvas();
+	}
+
+	@Benchmark
+	public int scroll() {
+		backGround.scroll();
+		return backGround.getPosition();
+	}
+
+	@Benchmark
+	public void scrollAndPaint() {
+		backGround.scroll();
+		backGround.paint(canvas);
+	}
+
+	@Benchmark
+	public void tiledLayerPaint() {
+		layer.paint(canvas);
+	}
+
+}
@@ -0,0 +1,180 @@
+package com.CES.example.game.benchmark;
+
+import java.util.Random;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import com.CES.example.game.BulletStore;
+import com.CES.example.game.Enemy;
+import com.CES.example.game.EntityList;
+import com.CES.example.game.GameContext;
+import com.CES.example.game.HeadlessGameContext;
+
+/**
+ * 基准测试的公共部分。
+ * <P/>
+ * 基准测试使用JMH，在桌面JVM上运行。工程里没有这部分的构建配置，需要手动
+ * 编译：把游戏的src目录和这个目录一起编译，classpath中加入android.jar，
+ * jmh-core和jmh-generator-annprocess，再用org.openjdk.jmh.Main运行。
+ * <pre>
+ * javac -cp android.jar:jmh-core.jar:jmh-generator-annprocess.jar -d bin \
+ *     $(find ../src src -name "*.java")
+ * java -cp bin:android.jar:jmh-core.jar:jopt-simple.jar:commons-math3.jar \
+ *     org.openjdk.jmh.Main
+ * </pre>
+ * 游戏逻辑使用HeadlessGameContext，不会创建Bitmap或Canvas，android.jar中
+ * 这些类的方法在桌面JVM上都会抛出异常。像素级碰撞用像素数组创建遮罩。
+ * <P/>
+ * BackGroundBenchmark需要真正的Bitmap和Canvas，只能在设备上运行：把它和
+ * 游戏一起打包，在instrumentation测试中用JMH的Runner运行。在桌面JVM上
+ * 运行时会因为android.jar抛出异常而失败。
+ * <P/>
+ * 会修改状态的基准测试(碰撞，清除子弹)一次调用只有几十纳秒到几微秒，
+ * 用Level.Invocation在每次调用前恢复状态时，JMH自己的开销会超过被测的代码。
+ * 所以这些基准使用SingleShotTime，每一轮测量前准备好一批状态，每次调用消耗
+ * 一个，结果是一批调用的总时间，除以批的大小就是每次调用的时间。
+ *
+ * @author Hong
+ *
+ */
+public class BenchmarkSupport {
+
+	public final static int SCREEN_WIDTH = 480;
+	public final static int SCREEN_HEIGHT = 800;
+	public final static long SEED = 20131008L;
+
+	/**
+	 * 创建无界面的游戏上下文。
+	 *
+	 * @return 游戏上下文
+	 */
+	public static GameContext createContext() {
+		return new HeadlessGameContext(SCREEN_WIDTH, SCREEN_HEIGHT, SEED);
+	}
+
+	/**
+	 * 创建敌人，三种类型按8:3:1的比例。
+	 *
+	 * @param context 游戏上下文
+	 * @param count 数量
+	 * @return 敌人数组
+	 */
+	public static Enemy[] createEnemys(GameContext context, int count) {
+		Enemy[] enemys = new Enemy[count];
+		for(int i = 0; i < count; i++) {
+			int r = i % 12;
+			int type = (r < 8)? Enemy.TYPE1 : (r < 11)? Enemy.TYPE2 : Enemy.TYPE3;
+			enemys[i] = Enemy.createEnemy(context, type);
+		}
+		return enemys;
+	}
+
+	/**
+	 * 清空子弹，再按给定的位置加入子弹，两种类型交替。
+	 *
+	 * @param bullets 子弹
+	 * @param xs X坐标
+	 * @param ys Y坐标
+	 */
+	public static void fillBullets(BulletStore bullets, int[] xs, int[] ys) {
+		bullets.clear();
+		for(int i = 0; i < xs.length; i++) {
+			bullets.acquire((i % 2 == 0)? BulletStore.TYPE1 : BulletStore.TYPE2,
+					xs[i], ys[i]);
+		}
+	}
+
+	/**
+	 * 生成固定的随机坐标。
+	 *
+	 * @param count 数量
+	 * @param bound 上限
+	 * @param seed 随机种子
+	 * @return 坐标数组
+	 */
+	public static int[] randomCoords(int count, int bound, long seed) {
+		Random random = new Random(seed);
+		int[] coords = new int[count];
+		for(int i = 0; i < count; i++)
+			coords[i] = random.nextInt(bound);
+		return coords;
+	}
+
+	/**
+	 * 创建一张图片的像素，中间的椭圆是不透明的，四角透明。
+	 *
+	 * @param width 宽
+	 * @param height 高
+	 * @return ARGB像素，逐行排列
+	 */
+	public static int[] createPixels(int width, int height) {
+		int[] pixels = new int[width * height];
+		float cx = width / 2.0f;
+		float cy = height / 2.0f;
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				float dx = (x - cx) / cx;
+				float dy = (y - cy) / cy;
+				pixels[y * width + x] = (dx * dx + dy * dy <= 1.0f)? 0xFF808080 : 0;
+			}
+		}
+		return pixels;
+	}
+
+	/**
+	 * 一组敌人和子弹，以及它们专用的游戏上下文。碰撞的基准测试每次调用消耗
+	 * 一组，每一轮测量前用reset把所有组放回原来的位置。每一组的SweepAndPrune
+	 * 在reset时已经同步，与游戏中每一帧的情况一样，碰撞检测时只需要增量同步。
+	 */
+	public static class Round {
+
+		public final GameContext context;
+		public final Enemy[] enemyArray;
+		public final EntityList<Enemy> enemys;
+		public final BulletStore bullets;
+
+		/**
+		 * 构造函数。
+		 *
+		 * @param enemyCount 敌人数
+		 */
+		public Round(int enemyCount) {
+			context = createContext();
+			enemyArray = createEnemys(context, enemyCount);
+			enemys = new EntityList<Enemy>();
+			for(Enemy e : enemyArray)
+				enemys.add(e);
+			bullets = new BulletStore(context);
+		}
+
+		/**
+		 * 让敌人复活并放到给定的位置，重新放入子弹。
+		 *
+		 * @param enemyX 敌人的X坐标
+		 * @param enemyY 敌人的Y坐标
+		 * @param bulletX 子弹的X坐标
+		 * @param bulletY 子弹的Y坐标
+		 */
+		public void reset(int[] enemyX, int[] enemyY, int[] bulletX,
+				int[] bulletY) {
+			for(int i = 0; i < enemyArray.length; i++)
+				enemyArray[i].relive(2, enemyX[i], enemyY[i]);
+			fillBullets(bullets, bulletX, bulletY);
+			context.getSweep().sync(enemys);
+		}
+
+	}
+
+	/**
+	 * 什么都不画的画布，用于只测量绘制代码本身的开销。只能在设备上使用。
+	 */
+	public static class NoopCanvas extends Canvas {
+		@Override
+		public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+		}
+	}
+
+}
@@ -0,0 +1,199 @@
+package com.CES.example.game.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.CES.example.game.BulletStore;
+import com.CES.example.game.CollisionEvents;
+import com.CES.example.game.Enemy;
+import com.CES.example.game.EntityList;
+import com.CES.example.game.GameHelper;
+import com.CES.example.game.SpatialGrid;
+
+/**
+ * 子弹与敌人碰撞检测的粗筛对比：
+ * <ul>
+ * <li>nestedLoops：原来的做法，所有子弹每移动一步，每颗子弹扫描一遍所有敌人，
+ * 击中第一个敌人后子弹死亡。</li>
+ * <li>grid：每帧把敌人放入SpatialGrid，每颗子弹用扫过的竖条查询。</li>
+ * <li>sweepAndPrune：GameHelper.collideDetect，按X区间排序的SweepAndPrune。</li>
+ * </ul>
+ * 三种做法击中的子弹与敌人都是一样的，不只是总分相同。前两种是为了对比而
+ * 保留在这里的参照实现，nestedLoops中子弹第几步的位置由当前位置算出，
+ * 最后再一次移动所有子弹。
+ * 碰撞会移动子弹并击中敌人，所以每次调用使用一组新的子弹和敌人，一批BATCH组
+ * 在每一轮测量前放好位置。结果是一批调用的总时间。
+ *
+ * @author Hong
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 100, batchSize = BroadphaseBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = BroadphaseBenchmark.BATCH)
+@Fork(1)
+public class BroadphaseBenchmark {
+
+	// 与GameHelper.BULLET_STEPS一致
+	private final static int BULLET_STEPS = 7;
+	// 每一轮测量调用的次数
+	final static int BATCH = 100;
+
+	@Param({"8", "32", "128", "512"})
+	int enemyCount;
+
+	@Param({"16", "256", "1024"})
+	int bulletCount;
+
+	private int[] enemyX, enemyY;
+	private int[] bulletX, bulletY;
+	private BenchmarkSupport.Round[] rounds;
+	private int next;
+	private SpatialGrid grid;
+	private CollisionEvents events;
+
+	@Setup
+	public void setup() {
+		enemyX = BenchmarkSupport.randomCoords(enemyCount,
+				BenchmarkSupport.SCREEN_WIDTH - 170, 1);
+		enemyY = BenchmarkSupport.randomCoords(enemyCount,
+				BenchmarkSupport.SCREEN_HEIGHT, 2);
+		bulletX = BenchmarkSupport.randomCoords(bulletCount,
+				BenchmarkSupport.SCREEN_WIDTH, 3);
+		bulletY = BenchmarkSupport.randomCoords(bulletCount,
+				BenchmarkSupport.SCREEN_HEIGHT, 4);
+
+		rounds = new BenchmarkSupport.Round[BATCH];
+		for(int i = 0; i < BATCH; i++)
+			rounds[i] = new BenchmarkSupport.Round(enemyCount);
+		grid = new SpatialGrid(BenchmarkSupport.SCREEN_WIDTH,
+				BenchmarkSupport.SCREEN_HEIGHT, enemyCount);
+		events = new CollisionEvents(BULLET_STEPS);
+	}
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		for(BenchmarkSupport.Round r : rounds)
+			r.reset(enemyX, enemyY, bulletX, bulletY);
+		next = 0;
+	}
+
+	@Benchmark
+	public int nestedLoops() {
+		BenchmarkSupport.Round r = rounds[next++];
+		BulletStore bullets = r.bullets;
+		EntityList<Enemy> enemys = r.enemys;
+		final int w = bullets.getWidth();
+		final int h = bullets.getHeight();
+		int score = 0;
+		for(int step = 1; step <= BULLET_STEPS; step++) {
+			for(int i = 0; i < bullets.getCount(); i++) {
+				if(!bullets.isAlive(i))
+					continue;
+				// 这一步之后的位置，移出屏幕的子弹不再检测。
+				int x = bullets.getX(i);
+				int y = bullets.getY(i) - step * h;
+				if(y < -h)
+					continue;
+				for(int j = 0; j < enemys.size(); j++) {
+					Enemy e = enemys.get(j);
+					if(!e.isAlive() || !e.isVisible())
+						continue;
+					if(x >= e.getCollisionRight() || y >= e.getCollisionBottom()
+							|| x + w <= e.getCollisionLeft() 
+							|| y + h <= e.getCollisionTop())
+						continue;
+					e.hited();
+					bullets.release(i);
+					if(!e.isAlive())
+						score += e.getScore();
+					break;
+				}
+			}
+		}
+		bullets.move(BULLET_STEPS);
+		return score;
+	}
+
+	@Benchmark
+	public int grid() {
+		BenchmarkSupport.Round r = rounds[next++];
+		BulletStore bullets = r.bullets;
+		EntityList<Enemy> enemys = r.enemys;
+		grid.clear();
+		for(int i = 0; i < enemys.size(); i++) {
+			Enemy e = enemys.get(i);
+			if(e.isAlive() && e.isVisible())
+				grid.insert(i, e.getCollisionLeft(), e.getCollisionTop(),
+						e.getCollisionRight(), e.getCollisionBottom());
+		}
+
+		events.clear();
+		final int w = bullets.getWidth();
+		final int h = bullets.getHeight();
+		for(int i = 0; i < bullets.getCount(); i++) {
+			if(!bullets.isAlive(i))
+				continue;
+			int x = bullets.getX(i);
+			int y = bullets.getY(i);
+			int last = Math.min(BULLET_STEPS, floorDiv(y + h, h));
+			if(last < 1)
+				continue;
+			int n = grid.query(x, y - last * h, x + w, y);
+			for(int k = 0; k < n; k++) {
+				int j = grid.get(k);
+				Enemy e = enemys.get(j);
+				if(x >= e.getCollisionRight() || x + w <= e.getCollisionLeft())
+					continue;
+				int first = Math.max(1,
+						floorDiv(y - e.getCollisionBottom(), h) + 1);
+				int end = Math.min(last,
+						floorDiv(y + h - e.getCollisionTop() - 1, h));
+				if(first <= end)
+					events.add(first, i, j);
+			}
+		}
+
+		int score = 0;
+		events.sort();
+		for(int k = 0; k < events.size(); k++) {
+			int i = events.getBullet(k);
+			Enemy e = enemys.get(events.getTarget(k));
+			if(!bullets.isAlive(i) || !e.isAlive())
+				continue;
+			bullets.release(i);
+			e.hited();
+			if(!e.isAlive())
+				score += e.getScore();
+		}
+		bullets.move(BULLET_STEPS);
+		return score;
+	}
+
+	@Benchmark
+	public int sweepAndPrune() {
+		BenchmarkSupport.Round r = rounds[next++];
+		return GameHelper.collideDetect(r.context, r.bullets, r.enemys);
+	}
+
+	private static int floorDiv(int a, int b) {
+		int q = a / b;
+		if(a % b != 0 && (a ^ b) < 0)
+			q--;
+		return q;
+	}
+
+}
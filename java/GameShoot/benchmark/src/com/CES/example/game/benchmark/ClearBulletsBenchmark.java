@@ -0,0 +1,76 @@
+package com.CES.example.game.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.CES.example.game.BulletStore;
+import com.CES.example.game.GameContext;
+
+/**
+ * 清除子弹(BulletStore.compact)的基准测试。每次调用清除一个新的子弹仓库，
+ * 其中三分之一的子弹已死亡，一批BATCH个仓库在每一轮测量前重新加入子弹。
+ * 结果是一批调用的总时间。
+ *
+ * @author Hong
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 50, batchSize = ClearBulletsBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = ClearBulletsBenchmark.BATCH)
+@Fork(1)
+public class ClearBulletsBenchmark {
+
+	// 每一轮测量调用的次数
+	final static int BATCH = 1000;
+
+	@Param({"64", "256", "1024"})
+	int bulletCount;
+
+	private int[] bulletX, bulletY;
+	private BulletStore[] stores;
+	private int next;
+
+	@Setup
+	public void setup() {
+		bulletX = BenchmarkSupport.randomCoords(bulletCount,
+				BenchmarkSupport.SCREEN_WIDTH, 3);
+		bulletY = BenchmarkSupport.randomCoords(bulletCount,
+				BenchmarkSupport.SCREEN_HEIGHT, 4);
+		GameContext context = BenchmarkSupport.createContext();
+		stores = new BulletStore[BATCH];
+		for(int i = 0; i < BATCH; i++)
+			stores[i] = new BulletStore(context);
+	}
+
+	@Setup(Level.Iteration)
+	public void rebuild() {
+		for(BulletStore bullets : stores) {
+			BenchmarkSupport.fillBullets(bullets, bulletX, bulletY);
+			for(int i = 0; i < bulletCount; i += 3)
+				bullets.release(i);
+		}
+		next = 0;
+	}
+
+	@Benchmark
+	public int clearBullets() {
+		BulletStore bullets = stores[next++];
+		bullets.compact();
+		return bullets.getCount();
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.CES.example.game.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.CES.example.game.GameHelper;
+
+/**
+ * GameHelper.collideDetect(GameContext, BulletStore, EntityList&lt;Enemy&gt;)
+ * 的基准测试。
+ * <P/>
+ * collideDetect会移动子弹并击中敌人，所以每次调用使用一组新的子弹和敌人，
+ * 一批BATCH组在每一轮测量前放好位置。结果是一批调用的总时间。
+ *
+ * @author Hong
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 50, batchSize = CollideBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = CollideBenchmark.BATCH)
+@Fork(1)
+public class CollideBenchmark {
+
+	// 每一轮测量调用的次数
+	final static int BATCH = 200;
+
+	@Param({"8", "32", "128"})
+	int enemyCount;
+
+	@Param({"16", "64", "256"})
+	int bulletCount;
+
+	private int[] enemyX, enemyY;
+	private int[] bulletX, bulletY;
+	private BenchmarkSupport.Round[] rounds;
+	private int next;
+
+	@Setup
+	public void setup() {
+		enemyX = BenchmarkSupport.randomCoords(enemyCount,
+				BenchmarkSupport.SCREEN_WIDTH - 170, 1);
+		enemyY = BenchmarkSupport.randomCoords(enemyCount,
+				BenchmarkSupport.SCREEN_HEIGHT / 2, 2);
+		bulletX = BenchmarkSupport.randomCoords(bulletCount,
+				BenchmarkSupport.SCREEN_WIDTH, 3);
+		bulletY = BenchmarkSupport.randomCoords(bulletCount,
+				BenchmarkSupport.SCREEN_HEIGHT, 4);
+
+		rounds = new BenchmarkSupport.Round[BATCH];
+		for(int i = 0; i < BATCH; i++)
+			rounds[i] = new BenchmarkSupport.Round(enemyCount);
+	}
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		for(BenchmarkSupport.Round r : rounds)
+			r.reset(enemyX, enemyY, bulletX, bulletY);
+		next = 0;
+	}
+
+	@Benchmark
+	public int collideDetect() {
+		BenchmarkSupport.Round r = rounds[next++];
+		return GameHelper.collideDetect(r.context, r.bullets, r.enemys);
+	}
+
+}
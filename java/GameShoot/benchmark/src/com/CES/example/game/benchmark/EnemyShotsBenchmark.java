@@ -0,0 +1,99 @@
+package com.CES.example.game.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.CES.example.game.EnemyBulletStore;
+import com.CES.example.game.GameContext;
+import com.CES.example.game.GameHelper;
+import com.CES.example.game.Player;
+
+/**
+ * 敌人子弹一个逻辑帧的基准测试：移动所有子弹，检测与玩家的碰撞，再清除
+ * 死亡的子弹。玩家被击中后会死亡，子弹也会移动，所以每次调用使用一组新的
+ * 玩家和子弹，一批BATCH组在每一轮测量前复活并放好位置。结果是一批调用的
+ * 总时间。
+ *
+ * @author Hong
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 50, batchSize = EnemyShotsBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = EnemyShotsBenchmark.BATCH)
+@Fork(1)
+public class EnemyShotsBenchmark {
+
+	// 每一轮测量调用的次数
+	final static int BATCH = 1000;
+
+	@Param({"64", "256", "1024"})
+	int shotCount;
+
+	private int[] shotX, shotY, shotVx, shotVy;
+	private GameContext context;
+	private EnemyBulletStore[] shots;
+	private Player[] players;
+	private int next;
+
+	@Setup
+	public void setup() {
+		context = BenchmarkSupport.createContext();
+		shotX = BenchmarkSupport.randomCoords(shotCount,
+				BenchmarkSupport.SCREEN_WIDTH, 1);
+		shotY = BenchmarkSupport.randomCoords(shotCount,
+				BenchmarkSupport.SCREEN_HEIGHT, 2);
+		shotVx = BenchmarkSupport.randomCoords(shotCount, 13, 3);
+		shotVy = BenchmarkSupport.randomCoords(shotCount, 13, 4);
+		for(int i = 0; i < shotCount; i++) {
+			shotVx[i] -= 6;
+			shotVy[i] -= 6;
+		}
+
+		shots = new EnemyBulletStore[BATCH];
+		players = new Player[BATCH];
+		for(int i = 0; i < BATCH; i++) {
+			shots[i] = new EnemyBulletStore(context);
+			players[i] = Player.createPlayer(context);
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		for(int k = 0; k < BATCH; k++) {
+			Player player = players[k];
+			player.relive();
+			player.setRefPixelPosition(BenchmarkSupport.SCREEN_WIDTH / 2,
+					BenchmarkSupport.SCREEN_HEIGHT - player.getHeight() / 2);
+			player.setVisible(true);
+			shots[k].clear();
+			for(int i = 0; i < shotCount; i++)
+				shots[k].acquire(shotX[i], shotY[i], shotVx[i], shotVy[i]);
+		}
+		next = 0;
+	}
+
+	@Benchmark
+	public int tick() {
+		EnemyBulletStore shots = this.shots[next];
+		Player player = players[next++];
+		shots.move(BenchmarkSupport.SCREEN_WIDTH, BenchmarkSupport.SCREEN_HEIGHT);
+		int hits = GameHelper.collideDetect(context, shots, player);
+		shots.compact();
+		return hits;
+	}
+
+}
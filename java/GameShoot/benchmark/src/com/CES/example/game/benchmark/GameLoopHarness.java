@@ -0,0 +1,165 @@
+package com.CES.example.game.benchmark;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.CES.example.game.GameLoop;
+
+/**
+ * GameLoop生命周期的检验程序。像GameView一样使用一个逻辑循环和一个绘图循环，
+ * 反复模拟surface的创建与销毁，并且每隔一段时间停止循环再新建，模拟Activity
+ * 的重建。
+ * <P/>
+ * 检验的内容：
+ * <ul>
+ * <li>同一个循环的任务不会同时在两个线程中执行。</li>
+ * <li>surface销毁(pause()返回)之后任务不会再访问surface。</li>
+ * <li>每个GameLoop只创建一个线程，stop()之后没有残留的线程。</li>
+ * </ul>
+ * 只依赖GameLoop，在桌面JVM上直接运行即可。失败时以非0值退出。
+ * <pre>
+ * java com.CES.example.game.benchmark.GameLoopHarness [次数]
+ * </pre>
+ *
+ * @author Hong
+ *
+ */
+public class GameLoopHarness {
+
+	private final static String THREAD_PREFIX = "HarnessLoop-";
+	// 每隔这么多次surface的创建与销毁重建一次循环。
+	private final static int CYCLES_PER_GENERATION = 500;
+
+	// surface是否有效，只由主线程(相当于UI线程)修改。
+	private static volatile boolean surfaceValid = false;
+
+	private final static AtomicInteger violations = new AtomicInteger();
+	private final static AtomicInteger threadsCreated = new AtomicInteger();
+	private final static AtomicInteger frames = new AtomicInteger();
+
+	/**
+	 * 模拟的任务。onFrame()中检查是否有其他线程同时执行，并在surface
+	 * 无效时计为错误。
+	 */
+	private static class CheckedTask implements GameLoop.Task {
+
+		private final AtomicInteger inside = new AtomicInteger();
+		private final boolean usesSurface;
+		private final long frameTime;
+		private Thread owner;
+
+		CheckedTask(boolean usesSurface, long frameTime) {
+			this.usesSurface = usesSurface;
+			this.frameTime = frameTime;
+		}
+
+		@Override
+		public void onResume() {
+			Thread t = Thread.currentThread();
+			if(owner == null) {
+				owner = t;
+				threadsCreated.incrementAndGet();
+			}
+			else if(owner != t) {
+				// 循环的线程应当被重用。
+				violations.incrementAndGet();
+			}
+		}
+
+		@Override
+		public void onFrame() {
+			if(inside.incrementAndGet() != 1)
+				violations.incrementAndGet();
+			if(usesSurface && !surfaceValid)
+				violations.incrementAndGet();
+			frames.incrementAndGet();
+			try {
+				Thread.sleep(0, (int) frameTime);
+			} catch (InterruptedException e) {
+				// 循环被暂停或停止。
+			}
+			if(usesSurface && !surfaceValid)
+				violations.incrementAndGet();
+			inside.decrementAndGet();
+		}
+
+		@Override
+		public void onPause() {
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		int cycles = (args.length > 0)? Integer.parseInt(args[0]) : 5000;
+		int baseline = countLoopThreads();
+		int generations = 0;
+
+		long start = System.nanoTime();
+		GameLoop logic = null;
+		GameLoop render = null;
+		for(int i = 0; i < cycles; i++) {
+			if(i % CYCLES_PER_GENERATION == 0) {
+				if(logic != null) {
+					render.stop();
+					logic.stop();
+				}
+				generations++;
+				logic = new GameLoop(THREAD_PREFIX + "logic-" + generations,
+						new CheckedTask(false, 200000));
+				render = new GameLoop(THREAD_PREFIX + "render-" + generations,
+						new CheckedTask(true, 100000));
+			}
+
+			// surfaceCreated
+			surfaceValid = true;
+			if(!logic.start())
+				logic.resume();
+			if(!render.start())
+				render.resume();
+
+			// 让循环跑上一小段时间，有时候不等待，立即销毁。
+			if(i % 3 != 0)
+				Thread.sleep(0, 300000);
+
+			// surfaceDestroyed
+			render.pause();
+			logic.pause();
+			surfaceValid = false;
+
+			// 偶尔在暂停状态下重复调用，这些调用都应当无效。
+			if(i % 7 == 0) {
+				if(render.pause() || logic.start())
+					violations.incrementAndGet();
+			}
+		}
+		render.stop();
+		logic.stop();
+		long time = System.nanoTime() - start;
+
+		int leaked = countLoopThreads() - baseline;
+		boolean ok = violations.get() == 0 && leaked == 0
+				&& threadsCreated.get() <= generations * 2;
+
+		System.out.println("cycles " + cycles + ", generations " + generations
+				+ ", frames " + frames.get() + ", time " + time / 1000000 + "ms");
+		System.out.println("threads created " + threadsCreated.get()
+				+ " (expected at most " + generations * 2 + "), leaked " + leaked
+				+ ", violations " + violations.get());
+		System.out.println(ok ? "OK" : "FAILED");
+		if(!ok)
+			System.exit(1);
+	}
+
+	/**
+	 * 统计还活着的循环线程数。
+	 *
+	 * @return 线程数
+	 */
+	private static int countLoopThreads() {
+		int count = 0;
+		for(Thread t : Thread.getAllStackTraces().keySet()) {
+			if(t.isAlive() && t.getName().startsWith(THREAD_PREFIX))
+				count++;
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.CES.example.game.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.CES.example.game.BulletStore;
+import com.CES.example.game.CollisionEvents;
+import com.CES.example.game.Enemy;
+import com.CES.example.game.EntityList;
+import com.CES.example.game.GameContext;
+import com.CES.example.game.GameHelper;
+import com.CES.example.game.ParallelCollider;
+import com.CES.example.game.SweepAndPrune;
+
+/**
+ * ParallelCollider.collect的基准测试，比较不同线程数下找出子弹碰撞的耗时。
+ * threads为1时就是串行的结果。
+ * <P/>
+ * collect只读取子弹和敌人，所以不需要每次都放回原来的位置。最小候选数设为0，
+ * 候选少时也会并行。16颗子弹时几乎没有候选，结果就是分段与等待的开销；
+ * 与threads为1时每个候选的耗时相比，可以算出从多少候选开始并行划算，
+ * 用来调整ParallelCollider.MIN_PAIRS。敌人数对应压力模式的两档。
+ *
+ * @author Hong
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelCollideBenchmark {
+
+	@Param({"1", "2", "4"})
+	int threads;
+
+	@Param({"125", "2000"})
+	int enemyCount;
+
+	@Param({"16", "256", "2048"})
+	int bulletCount;
+
+	private ParallelCollider collider;
+	private SweepAndPrune sweep;
+	private CollisionEvents events;
+	private EntityList<Enemy> enemys;
+	private BulletStore bullets;
+
+	@Setup
+	public void setup() {
+		GameContext context = BenchmarkSupport.createContext();
+		Enemy[] enemyArray = BenchmarkSupport.createEnemys(context, enemyCount);
+		int[] enemyX = BenchmarkSupport.randomCoords(enemyCount,
+				BenchmarkSupport.SCREEN_WIDTH - 170, 1);
+		int[] enemyY = BenchmarkSupport.randomCoords(enemyCount,
+				BenchmarkSupport.SCREEN_HEIGHT / 2, 2);
+		enemys = new EntityList<Enemy>();
+		for(int i = 0; i < enemyCount; i++) {
+			enemyArray[i].relive(2, enemyX[i], enemyY[i]);
+			enemys.add(enemyArray[i]);
+		}
+
+		bullets = new BulletStore(context);
+		BenchmarkSupport.fillBullets(bullets,
+				BenchmarkSupport.randomCoords(bulletCount,
+						BenchmarkSupport.SCREEN_WIDTH, 3),
+				BenchmarkSupport.randomCoords(bulletCount,
+						BenchmarkSupport.SCREEN_HEIGHT, 4));
+
+		sweep = new SweepAndPrune();
+		sweep.sync(enemys);
+		events = new CollisionEvents(GameHelper.BULLET_STEPS);
+		collider = new ParallelCollider(threads, 0);
+	}
+
+	@TearDown
+	public void tearDown() {
+		collider.stop();
+	}
+
+	@Benchmark
+	public int collect() {
+		events.clear();
+		collider.collect(sweep, bullets, enemys, events);
+		return events.size();
+	}
+
+	/**
+	 * 每次collect的候选数，用来换算每个候选的耗时。
+	 *
+	 * @return 候选数
+	 */
+	public int getPairsPerCall() {
+		sweep.resetStats();
+		collect();
+		return sweep.getPairsTested();
+	}
+
+}
@@ -0,0 +1,130 @@
+package com.CES.example.game.benchmark;
+
+import com.CES.example.game.BulletStore;
+import com.CES.example.game.EnemyBulletStore;
+import com.CES.example.game.FrameProfiler;
+import com.CES.example.game.GameWorld;
+import com.CES.example.game.SpatialGrid;
+import com.CES.example.game.StressMode;
+import com.CES.example.game.SweepAndPrune;
+
+/**
+ * 压力模式的无界面运行程序。按敌人数量从少到多运行几轮，每一轮先运行到敌人
+ * 数量稳定，再记录一段时间内逻辑帧各阶段的耗时，输出敌人与子弹的平均数量和
+ * 各阶段的p50/p99，用于找出碰撞检测和清除在多少元素时开始跟不上。
+ * bullet_misses是这一局中子弹仓库需要扩容或已满的次数，shots_dropped是
+ * 敌人子弹因为仓库已满而被丢弃的次数。
+ * 绘制的耗时需要在设备上测量，见StressMode。
+ * <P/>
+ * 只依赖游戏逻辑，在桌面JVM上直接运行即可。
+ * <pre>
+ * java com.CES.example.game.benchmark.StressHarness [每轮的逻辑帧数] [敌人数量...]
+ * </pre>
+ *
+ * @author Hong
+ *
+ */
+public class StressHarness {
+
+	private final static int[] DEFAULT_LEVELS = new int[]{125, 250, 500, 1000,
+		2000, 4000};
+	// 各轮输出的阶段
+	private final static int[] PHASES = new int[]{FrameProfiler.TICK,
+		FrameProfiler.COLLIDE_BULLETS, FrameProfiler.COLLIDE_SHOTS,
+		FrameProfiler.COLLIDE_ENEMYS, FrameProfiler.REFRESH_ENEMY,
+		FrameProfiler.CLEAR_BULLETS, FrameProfiler.FIRE};
+
+	public static void main(String[] args) {
+		int ticks = (args.length > 0)? Integer.parseInt(args[0]) : 2000;
+		int[] levels = DEFAULT_LEVELS;
+		if(args.length > 1) {
+			levels = new int[args.length - 1];
+			for(int i = 1; i < args.length; i++)
+				levels[i - 1] = Integer.parseInt(args[i]);
+		}
+
+		StringBuilder header = new StringBuilder(
+				"maxEnemys,enemys,bullets,shots,grid_pairs,grid_hits,"
+				+ "sweep_pairs,sweep_hits,bullet_misses,shots_dropped");
+		for(int phase : PHASES) {
+			String name = FrameProfiler.getName(phase).replace(' ', '_');
+			header.append(',').append(name).append("_p50,")
+					.append(name).append("_p99");
+		}
+		System.out.println(header);
+
+		for(int level : levels)
+			System.out.println(run(StressMode.create(level), ticks));
+	}
+
+	/**
+	 * 运行一轮。
+	 *
+	 * @param stress 压力模式
+	 * @param ticks 记录的逻辑帧数
+	 * @return 一行CSV，耗时的单位为微秒。
+	 */
+	private static String run(StressMode stress, int ticks) {
+		GameWorld world = new GameWorld(BenchmarkSupport.createContext());
+		FrameProfiler profiler = new FrameProfiler();
+		world.setStressMode(stress);
+		world.setProfiler(profiler);
+		world.start();
+
+		// 敌人数量达到上限或者不再增长时就认为稳定了，同时也是JIT的预热。
+		int last = -1;
+		for(int i = 0; i < ticks; i++) {
+			world.tick();
+			int n = world.getEnemys().size();
+			if(n >= stress.getMaxEnemys() || (i % 100 == 99 && n <= last))
+				break;
+			if(i % 100 == 99)
+				last = n;
+		}
+		profiler.reset();
+		SpatialGrid grid = world.getContext().getGrid();
+		grid.resetStats();
+		SweepAndPrune sweep = world.getContext().getSweep();
+		sweep.resetStats();
+
+		long enemys = 0, bullets = 0, shots = 0;
+		for(int i = 0; i < ticks; i++) {
+			world.tick();
+			enemys += world.getEnemys().size();
+			bullets += countBullets(world.getBullets());
+			shots += countShots(world.getShots());
+		}
+
+		StringBuilder line = new StringBuilder();
+		line.append(stress.getMaxEnemys()).append(',').append(enemys / ticks)
+				.append(',').append(bullets / ticks).append(',')
+				.append(shots / ticks).append(',')
+				.append(grid.getPairsTested() / ticks).append(',')
+				.append(grid.getHits() / ticks).append(',')
+				.append(sweep.getPairsTested() / ticks).append(',')
+				.append(sweep.getHits() / ticks).append(',')
+				.append(world.getBullets().getPoolMisses()).append(',')
+				.append(world.getShots().getDrops());
+		for(int phase : PHASES) {
+			line.append(',').append(profiler.getPercentile(phase, 50))
+					.append(',').append(profiler.getPercentile(phase, 99));
+		}
+		world.getContext().getCollider().stop();
+		return line.toString();
+	}
+
+	private static int countBullets(BulletStore bullets) {
+		int n = 0;
+		for(int i = 0; i < bullets.getCount(); i++)
+			if(bullets.isAlive(i)) n++;
+		return n;
+	}
+
+	private static int countShots(EnemyBulletStore shots) {
+		int n = 0;
+		for(int i = 0; i < shots.getCount(); i++)
+			if(shots.isAlive(i)) n++;
+		return n;
+	}
+
+}
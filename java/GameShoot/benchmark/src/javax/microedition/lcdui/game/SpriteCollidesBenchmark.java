@@ -0,0 +1,74 @@
+package javax.microedition.lcdui.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.CES.example.game.benchmark.BenchmarkSupport;
+
+/**
+ * Sprite.collidesWith(Sprite, boolean)的基准测试。一个精灵与一组不同位置的
+ * 精灵逐个检测，其中有完全重叠的，有只有碰撞范围的角相交的，也有不相交的。
+ * <P/>
+ * 精灵没有图片，pixelLevel为true时直接用像素数组创建AlphaMask交给精灵，
+ * 与从图片创建的遮罩相同，所以不需要真正的Bitmap。放在这个包里是为了能
+ * 访问AlphaMask。
+ *
+ * @author Hong
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpriteCollidesBenchmark {
+
+	private final static int SIZE = 100;
+	private final static int COUNT = 16;
+
+	@Param({"false", "true"})
+	boolean pixelLevel;
+
+	private Sprite sprite;
+	private Sprite[] others;
+
+	@Setup
+	public void setup() {
+		AlphaMask mask = pixelLevel? new AlphaMask(
+				BenchmarkSupport.createPixels(SIZE, SIZE), SIZE, SIZE, SIZE,
+				SIZE) : null;
+		sprite = new Sprite(null, SIZE, SIZE, SIZE, SIZE);
+		sprite.alphaMask = mask;
+		others = new Sprite[COUNT];
+		for(int i = 0; i < COUNT; i++) {
+			others[i] = new Sprite(null, SIZE, SIZE, SIZE, SIZE);
+			others[i].alphaMask = mask;
+			// 从完全重叠到完全分开，步长为SIZE / 8
+			int d = (i * SIZE) / 8;
+			others[i].setPosition(d, d);
+		}
+	}
+
+	@Benchmark
+	public int collidesWith() {
+		int hits = 0;
+		for(int i = 0; i < COUNT; i++) {
+			if(sprite.collidesWith(others[i], pixelLevel))
+				hits++;
+		}
+		return hits;
+	}
+
+}
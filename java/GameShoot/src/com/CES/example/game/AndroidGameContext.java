@@ -0,0 +1,42 @@
+package com.CES.example.game;
+
+import java.util.Random;
+
+import android.graphics.Bitmap;
+
+/**
+ * Android下的游戏上下文。图片与音效来自GameHelper，必须先调用GameHelper.init。
+ *
+ * @author Hong
+ *
+ */
+public class AndroidGameContext extends GameContext {
+
+	/**
+	 * 构造函数。屏幕大小取自GameHelper。
+	 */
+	public AndroidGameContext() {
+		super(GameHelper.screenWidth, GameHelper.screenHeight, new Random());
+	}
+
+	@Override
+	public Bitmap getBitmap(String fileName) {
+		return GameHelper.getBitmap(fileName);
+	}
+
+	@Override
+	public int getImageWidth(String fileName) {
+		return GameHelper.getBitmap(fileName).getWidth();
+	}
+
+	@Override
+	public int getImageHeight(String fileName) {
+		return GameHelper.getBitmap(fileName).getHeight();
+	}
+
+	@Override
+	public void playSound(int id) {
+		GameHelper.playSound(id);
+	}
+
+}
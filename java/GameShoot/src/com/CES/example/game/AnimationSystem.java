@@ -0,0 +1,32 @@
+package com.CES.example.game;
+
+/**
+ * 动画系统。所有有动画组件的实体每隔各自的帧周期换到帧序中的下一帧，
+ * 帧序是循环的。
+ *
+ * @author Hong
+ *
+ */
+public class AnimationSystem {
+
+	/**
+	 * 推进一个逻辑帧。
+	 *
+	 * @param entities 实体
+	 * @param tickCount 当前的逻辑帧数
+	 */
+	public void update(Entities entities, int tickCount) {
+		final int n = entities.count;
+		final int[] mask = entities.mask;
+		final int[][] sequence = entities.sequence;
+		final int[] sequenceIndex = entities.sequenceIndex;
+		final int[] period = entities.period;
+		for(int i = 0; i < n; i++) {
+			if((mask[i] & Entities.ANIMATION) == 0 || tickCount % period[i] != 0)
+				continue;
+			int k = sequenceIndex[i] + 1;
+			sequenceIndex[i] = (k == sequence[i].length)? 0 : k;
+		}
+	}
+
+}
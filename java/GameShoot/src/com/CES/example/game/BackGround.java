@@ -16,6 +16,7 @@ public class BackGround {
 	
 	private TiledLayer layer;
 	private int speed;
+	private int position;
 	
 	private int tileColumns, tileRows;
 	private int layerColumns, layerRows;
@@ -26,58 +27,85 @@ public class BackGround {
 	 * @param speed 滚动速度
 	 */
 	public BackGround(int speed) {
+		this(GameHelper.getBitmap("background.png"), GameHelper.screenWidth, 
+				GameHelper.screenHeight, speed);
+	}
+	
+	/**
+	 * 构造函数。
+	 * 
+	 * @param image 背景图片
+	 * @param screenWidth 屏宽
+	 * @param screenHeight 屏高
+	 * @param speed 滚动速度
+	 */
+	public BackGround(Bitmap image, int screenWidth, int screenHeight, 
+			int speed) {
 		int tileWidth = 40;
 		int tileHeight = 50;
-		Bitmap image = GameHelper.getBitmap("background.png");
 
 		tileColumns = image.getWidth() / tileWidth;
 		tileRows = image.getHeight() / tileHeight;
-		layerColumns = GameHelper.screenWidth / tileWidth + 1;
-		layerRows = GameHelper.screenHeight / tileHeight + 1;
+		layerColumns = screenWidth / tileWidth + 1;
+		// 上方多出一行，滚动时从上方移入。
+		layerRows = screenHeight / tileHeight + 2;
 
-		// 初始化TiledLayer
+		// 初始化TiledLayer，砖块的内容在绘制时设置。
 		layer = new TiledLayer(layerColumns, layerRows, 
 				image, tileWidth, tileHeight);
-		for(int i = 0; i < layerRows; i++) {
-			for(int j = 0; j < layerColumns; j++) {
-				int tile = (i % tileRows) * tileColumns + ((j % tileColumns) + 1);
-				layer.setCell(j, i, tile);
-			}
-		}
 
 		this.speed = speed;
+		this.position = 0;
 	}
 	
 	/**
-	 * 背景滚动。这个滚动实际上是修改TiledLayer的位置与每个砖块的内容来实现的。
+	 * 背景滚动。这里只记录滚动的距离，砖块的内容在绘制时才根据滚动距离设置，
+	 * 所以滚动与绘制可以在不同的线程中进行。
 	 */
 	public void scroll() {
-		int y = layer.getY() + speed;
+		position = (position + speed) % (tileRows * layer.getCellHeight());
+	}
+	
+	/**
+	 * 绘制当前滚动距离的背景。
+	 * 
+	 * @param canvas 画布
+	 */
+	public void paint(Canvas canvas) {
+		paint(canvas, position);
+	}
+	
+	/**
+	 * 按给定的滚动距离绘制背景。这个滚动实际上是修改TiledLayer的位置与
+	 * 每个砖块的内容来实现的。
+	 * 
+	 * @param canvas 画布
+	 * @param position 滚动距离
+	 */
+	public void paint(Canvas canvas, int position) {
 		int cellH = layer.getCellHeight();
-		int dr = (y + cellH) / cellH;
+		int dr = position / cellH;
+		layer.setPosition(layer.getX(), position % cellH - cellH);
 		
-		y -= dr * cellH;
-		layer.setPosition(layer.getX(), y);
-
-		int tileCount = tileColumns * tileRows;
 		for(int i = 0; i < layerRows; i++) {
+			int row = (i - 1 - dr) % tileRows;
+			if(row < 0)
+				row += tileRows;
 			for(int j = 0; j < layerColumns; j++) {
-				int currenTile = layer.getCell(j, i);
-				currenTile -= dr * tileColumns;
-				if(currenTile <= 0)
-					currenTile += tileCount;
-				layer.setCell(j, i, currenTile);
+				int tile = row * tileColumns + ((j % tileColumns) + 1);
+				layer.setCell(j, i, tile);
 			}
 		}
+		layer.paint(canvas);
 	}
 	
 	/**
-	 * 绘制。实际就是绘制TiledLayer。
+	 * 获取滚动距离
 	 * 
-	 * @param canvas 画布
+	 * @return 滚动距离
 	 */
-	public void paint(Canvas canvas) {
-		layer.paint(canvas);
+	public int getPosition() {
+		return position;
 	}
 
 	/**
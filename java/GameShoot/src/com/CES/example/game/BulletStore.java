@@ -0,0 +1,282 @@
+package com.CES.example.game;
+
+import android.graphics.Bitmap;
+
+/**
+ * 子弹仓库。所有的子弹都保存在这里，每颗子弹只是几个int数组中的一项，
+ * 不再是一个完整的Sprite。
+ * <P/>
+ * 子弹都使用bullet.png中的帧：类型1是第一帧，类型2是第二帧，大小都一样，
+ * 碰撞范围就是整个帧。子弹只会向上移动，所以只需要记录位置，类型与是否存活。
+ * 碰撞检测时连续地遍历这几个数组，子弹再多也不会有大量的对象与指针跳转。
+ * <P/>
+ * 子弹仓库同时也是子弹的对象池：acquire()占用一个位置，子弹死亡或release()
+ * 后位置被归还，compact()把归还的位置集中到末尾以便重用，并保持存活子弹的顺序。
+ * 容量不够时数组会加倍，但不会超过MAX_CAPACITY，满了之后新的子弹会被丢弃。
+ * 不需要加倍就拿到位置记为命中，需要加倍或被丢弃记为未命中，用于监控。
+ *
+ * @author Hong
+ *
+ */
+public class BulletStore {
+
+	public final static int TYPE1 = 0;
+	public final static int TYPE2 = 1;
+
+	private final static int INIT_CAPACITY = 64;
+	// 最大容量。子弹每秒最多发射20颗，正常游戏中远远达不到。
+	private final static int MAX_CAPACITY = 4096;
+
+	private final Bitmap image;
+	private final int width;
+	private final int height;
+
+	private int count;
+	private int[] x;
+	private int[] y;
+	private int[] type;
+	private boolean[] alive;
+
+	// 对象池统计
+	private int hits;
+	private int misses;
+
+	/**
+	 * 构造函数。
+	 *
+	 * @param context 游戏上下文
+	 */
+	public BulletStore(GameContext context) {
+		image = context.getBitmap("bullet.png");
+		width = context.getImageWidth("bullet.png") / 2;
+		height = context.getImageHeight("bullet.png");
+
+		x = new int[INIT_CAPACITY];
+		y = new int[INIT_CAPACITY];
+		type = new int[INIT_CAPACITY];
+		alive = new boolean[INIT_CAPACITY];
+	}
+
+	/**
+	 * 从对象池中取一个位置放入一颗子弹。
+	 *
+	 * @param type 子弹类型
+	 * @param x 左上角X坐标
+	 * @param y 左上角Y坐标
+	 * @return 子弹序号，仓库已满时返回-1，子弹被丢弃。
+	 */
+	public int acquire(int type, int x, int y) {
+		if(type != TYPE1 && type != TYPE2)
+			throw new IllegalArgumentException("Unkown type.");
+
+		if(count == this.x.length) {
+			misses++;
+			if(count >= MAX_CAPACITY)
+				return -1;
+			grow();
+		}
+		else
+			hits++;
+		int i = count++;
+		this.x[i] = x;
+		this.y[i] = y;
+		this.type[i] = type;
+		this.alive[i] = true;
+		return i;
+	}
+
+	/**
+	 * 归还一颗子弹的位置，子弹随之死亡。位置在compact()之后才能重用。
+	 *
+	 * @param i 子弹序号
+	 */
+	public void release(int i) {
+		alive[i] = false;
+	}
+
+	/**
+	 * 所有存活的子弹向上移动若干个子弹高度，移出屏幕的子弹死亡。
+	 *
+	 * @param steps 步数
+	 */
+	public void move(int steps) {
+		final int h = height;
+		final int d = h * steps;
+		final int[] y = this.y;
+		final boolean[] alive = this.alive;
+		for(int i = 0; i < count; i++) {
+			if(!alive[i])
+				continue;
+			y[i] -= d;
+			if(y[i] < -h)
+				alive[i] = false;
+		}
+	}
+
+	/**
+	 * 回收死亡的子弹的位置，存活的子弹保持原来的顺序。
+	 */
+	public void compact() {
+		int n = 0;
+		for(int i = 0; i < count; i++) {
+			if(!alive[i])
+				continue;
+			if(n != i) {
+				x[n] = x[i];
+				y[n] = y[i];
+				type[n] = type[i];
+				alive[n] = true;
+			}
+			n++;
+		}
+		count = n;
+	}
+
+	/**
+	 * 清除所有子弹，归还所有位置。
+	 */
+	public void clear() {
+		count = 0;
+	}
+
+	/**
+	 * 子弹数量，包括已死亡但还没有清除的子弹。
+	 *
+	 * @return 子弹数量
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * 获取子弹的X坐标。
+	 *
+	 * @param i 子弹序号
+	 * @return X坐标
+	 */
+	public int getX(int i) {
+		return x[i];
+	}
+
+	/**
+	 * 获取子弹的Y坐标。
+	 *
+	 * @param i 子弹序号
+	 * @return Y坐标
+	 */
+	public int getY(int i) {
+		return y[i];
+	}
+
+	/**
+	 * 获取子弹的类型。
+	 *
+	 * @param i 子弹序号
+	 * @return 类型
+	 */
+	public int getType(int i) {
+		return type[i];
+	}
+
+	/**
+	 * 子弹是否存活。
+	 *
+	 * @param i 子弹序号
+	 * @return 存活返回true，否则返回false。
+	 */
+	public boolean isAlive(int i) {
+		return alive[i];
+	}
+
+	/**
+	 * 子弹宽度，所有子弹都一样。
+	 *
+	 * @return 宽度
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * 子弹高度，所有子弹都一样。
+	 *
+	 * @return 高度
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * 子弹图片。
+	 *
+	 * @return 图片
+	 */
+	public Bitmap getImage() {
+		return image;
+	}
+
+	/**
+	 * 子弹类型对应的帧在图片中的X坐标。
+	 *
+	 * @param type 子弹类型
+	 * @return X坐标
+	 */
+	public int getFrameImageX(int type) {
+		return type * width;
+	}
+
+	/**
+	 * 获取对象池命中的次数，即不需要扩容就拿到位置的次数。
+	 *
+	 * @return 命中次数
+	 */
+	public int getPoolHits() {
+		return hits;
+	}
+
+	/**
+	 * 获取对象池未命中的次数，即需要扩容或因为已满而丢弃子弹的次数。
+	 *
+	 * @return 未命中次数
+	 */
+	public int getPoolMisses() {
+		return misses;
+	}
+
+	/**
+	 * 获取当前的容量。
+	 *
+	 * @return 容量
+	 */
+	public int getCapacity() {
+		return x.length;
+	}
+
+	/**
+	 * 清空对象池统计。
+	 */
+	public void resetStats() {
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * 数组容量加倍，不超过MAX_CAPACITY。
+	 */
+	private void grow() {
+		int n = Math.min(x.length * 2, MAX_CAPACITY);
+		x = copyOf(x, n);
+		y = copyOf(y, n);
+		type = copyOf(type, n);
+		boolean[] newAlive = new boolean[n];
+		System.arraycopy(alive, 0, newAlive, 0, count);
+		alive = newAlive;
+	}
+
+	private int[] copyOf(int[] src, int n) {
+		int[] dst = new int[n];
+		System.arraycopy(src, 0, dst, 0, count);
+		return dst;
+	}
+
+}
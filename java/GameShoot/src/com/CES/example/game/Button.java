@@ -13,15 +13,19 @@ import android.view.MotionEvent;
 /**
  * 按键类，继承于Layer类。按键有两种类型。类型1是由画笔画出来的，
  * 类型2是一张图片。
+ * <P/>
+ * 按键由逻辑线程显示，隐藏和移动，弹出与关闭的动态效果也在逻辑帧中推进，
+ * 速度与绘制的帧率无关。绘图线程只按快照中记录的状态绘制。
  * 
  * @author Hong
  *
  */
-public class Button extends Layer {
+public class Button extends Layer implements WorldSnapshot.Widget {
 	
 	private int id;
 	private Bitmap src;
 	private String text;
+	// 弹出与关闭的动态效果的帧，只在逻辑线程中修改。
 	private int step = 0;
 	
 	private Paint paint;
@@ -82,42 +86,79 @@ public class Button extends Layer {
 	 */
 	@Override
 	public void paint(Canvas canvas) {
+		if(type == 1 || isVisible())
+			paint(canvas, step, getX(), getY(), text);
+	}
+	
+	/**
+	 * 按快照中记录的状态绘制。
+	 */
+	@Override
+	public void paint(Canvas canvas, int step, int x, int y, String text) {
 		if(type == 1)
-			paintType1(canvas);
+			paintType1(canvas, step, x, y, text);
 		else
-			paintType2(canvas);
+			paintType2(canvas, x, y);
 	}
 	
 	/**
-	 * 绘制按键类型1。这里会有一个弹出与关闭时的动态效果。
+	 * 推进弹出或关闭的动态效果一帧，在逻辑帧中调用。
 	 * 
-	 * @param canvas 画布
+	 * @return 动态效果的帧有变化返回true。
 	 */
-	private void paintType1(Canvas canvas) {
+	public boolean update() {
+		if(type != 1)
+			return false;
+		int last = step;
 		if(isVisible())
 			step = (step < 3)? step + 1 : 3;
 		else
 			step = (step > 0)? step - 1 : 0;
-		
+		return step != last;
+	}
+	
+	/**
+	 * 把按键当前的状态加入快照，只能由逻辑线程调用。看不到的按键不会加入。
+	 * 
+	 * @param snapshot 快照
+	 */
+	public void snapshot(WorldSnapshot snapshot) {
+		if((type == 1)? step > 0 : isVisible())
+			snapshot.addWidget(this, step, getX(), getY(), text);
+	}
+	
+	/**
+	 * 绘制按键类型1。这里会有一个弹出与关闭时的动态效果。
+	 * 
+	 * @param canvas 画布
+	 * @param step 动态效果的帧
+	 * @param x X坐标
+	 * @param y Y坐标
+	 * @param text 文本内容
+	 */
+	private void paintType1(Canvas canvas, int step, int x, int y, 
+			String text) {
 		if(step <= 0)
 			return;
 
 		int alpha = 0;
 		int w = getWidth();
 		int h = getHeight();
+		int cx = x + w / 2;
+		int cy = y + h / 2;
 		if(step == 1) {
-			rect.set(centerX - w / 6, centerY - h / 6, 
-					centerX + w / 6, centerY + h / 6);
+			rect.set(cx - w / 6, cy - h / 6, 
+					cx + w / 6, cy + h / 6);
 			alpha = 20;
 		}
 		else if(step == 2) {
-			rect.set(centerX - w / 3, centerY - h / 3, 
-					centerX + w / 3, centerY + h / 3);
+			rect.set(cx - w / 3, cy - h / 3, 
+					cx + w / 3, cy + h / 3);
 			alpha = 80;
 		}
 		else if(step == 3) {
-			rect.set(centerX - w / 2, centerY - h / 2, 
-					centerX + w / 2, centerY + h / 2);
+			rect.set(cx - w / 2, cy - h / 2, 
+					cx + w / 2, cy + h / 2);
 			alpha = 255;
 		}
 		
@@ -132,8 +173,8 @@ public class Button extends Layer {
 			paint.setStyle(Paint.Style.FILL);
 			paint.setStrokeWidth(1.0f);
 			paint.getTextBounds(text, 0, text.length(), rectSrc);
-			canvas.drawText(text, centerX - rectSrc.width() / 2, 
-					centerY + rectSrc.height() / 2 - 2, paint);
+			canvas.drawText(text, cx - rectSrc.width() / 2, 
+					cy + rectSrc.height() / 2 - 2, paint);
 		}
 	}
 	
@@ -141,13 +182,12 @@ public class Button extends Layer {
 	 * 绘制按键类型2。
 	 * 
 	 * @param canvas 画布
+	 * @param x X坐标
+	 * @param y Y坐标
 	 */
-	private void paintType2(Canvas canvas) {
-		if(!isVisible())
-			return;
-		
-		rectSrc.left = getX();
-		rectSrc.top = getY();
+	private void paintType2(Canvas canvas, int x, int y) {
+		rectSrc.left = x;
+		rectSrc.top = y;
 		rectSrc.right = rectSrc.left + getWidth();
 		rectSrc.bottom = rectSrc.top + getHeight();
 		
@@ -0,0 +1,140 @@
+package com.CES.example.game;
+
+/**
+ * 碰撞事件。每个事件记录一颗子弹在第几步会第一次碰到哪个目标，
+ * 收集完后按步数稳定排序，同一步中的事件保持加入时的顺序，
+ * 使用者按这个顺序处理就与逐步移动逐步检测的顺序一样。
+ * <P/>
+ * 步数很小，所以用计数排序，不会分配对象。数组容量不够时会加倍，
+ * 之后就一直重用。
+ *
+ * @author Hong
+ *
+ */
+public class CollisionEvents {
+
+	private final static int INIT_CAPACITY = 64;
+
+	private int size;
+	private int[] steps;
+	private int[] bullets;
+	private int[] targets;
+
+	// 排序后的结果
+	private int[] sortedBullets;
+	private int[] sortedTargets;
+	private int[] counts;
+
+	/**
+	 * 构造函数。
+	 *
+	 * @param maxStep 最大步数
+	 */
+	public CollisionEvents(int maxStep) {
+		steps = new int[INIT_CAPACITY];
+		bullets = new int[INIT_CAPACITY];
+		targets = new int[INIT_CAPACITY];
+		sortedBullets = new int[INIT_CAPACITY];
+		sortedTargets = new int[INIT_CAPACITY];
+		counts = new int[maxStep + 2];
+	}
+
+	/**
+	 * 清除所有事件。
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * 加入一个事件。
+	 *
+	 * @param step 步数，从0到最大步数。
+	 * @param bullet 子弹序号
+	 * @param target 目标序号
+	 */
+	public void add(int step, int bullet, int target) {
+		if(size == steps.length)
+			grow();
+		steps[size] = step;
+		bullets[size] = bullet;
+		targets[size] = target;
+		size++;
+	}
+
+	/**
+	 * 把另一组事件按原来的顺序加在后面。
+	 *
+	 * @param other 另一组事件，还没有排序的。
+	 */
+	public void addAll(CollisionEvents other) {
+		for(int i = 0; i < other.size; i++)
+			add(other.steps[i], other.bullets[i], other.targets[i]);
+	}
+
+	/**
+	 * 按步数稳定排序，之后get方法返回排序后的事件。
+	 */
+	public void sort() {
+		final int[] counts = this.counts;
+		for(int i = 0; i < counts.length; i++)
+			counts[i] = 0;
+		for(int i = 0; i < size; i++)
+			counts[steps[i] + 1]++;
+		for(int i = 1; i < counts.length; i++)
+			counts[i] += counts[i - 1];
+		for(int i = 0; i < size; i++) {
+			int n = counts[steps[i]]++;
+			sortedBullets[n] = bullets[i];
+			sortedTargets[n] = targets[i];
+		}
+	}
+
+	/**
+	 * 事件数。
+	 *
+	 * @return 事件数
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 获取排序后事件的子弹序号。
+	 *
+	 * @param i 事件序号
+	 * @return 子弹序号
+	 */
+	public int getBullet(int i) {
+		return sortedBullets[i];
+	}
+
+	/**
+	 * 获取排序后事件的目标序号。
+	 *
+	 * @param i 事件序号
+	 * @return 目标序号
+	 */
+	public int getTarget(int i) {
+		return sortedTargets[i];
+	}
+
+	/**
+	 * 数组容量加倍。
+	 */
+	private void grow() {
+		int n = steps.length * 2;
+		steps = copyOf(steps, n);
+		bullets = copyOf(bullets, n);
+		targets = copyOf(targets, n);
+		sortedBullets = new int[n];
+		sortedTargets = new int[n];
+	}
+
+	private int[] copyOf(int[] src, int n) {
+		int[] dst = new int[n];
+		System.arraycopy(src, 0, dst, 0, size);
+		return dst;
+	}
+
+}
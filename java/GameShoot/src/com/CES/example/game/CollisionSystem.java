@@ -0,0 +1,65 @@
+package com.CES.example.game;
+
+/**
+ * 碰撞系统。检测有位置与碰撞范围组件的实体与一个矩形的碰撞，碰撞的结果交给
+ * Listener处理。矩形的右边和下边不包括在内，与Sprite的collidesWith()一样。
+ *
+ * @author Hong
+ *
+ */
+public class CollisionSystem {
+
+	private final static int COLLIDABLE = Entities.POSITION | Entities.COLLIDER;
+
+	/**
+	 * 检测一组实体与一个矩形的碰撞。Listener中可以销毁实体。
+	 *
+	 * @param entities 实体
+	 * @param group 组
+	 * @param left 矩形左边
+	 * @param top 矩形上边
+	 * @param right 矩形右边
+	 * @param bottom 矩形下边
+	 * @param listener 碰撞处理
+	 * @return 碰撞的实体数
+	 */
+	public int collide(Entities entities, int group, int left, int top,
+			int right, int bottom, Listener listener) {
+		final int n = entities.count;
+		final int[] mask = entities.mask;
+		final int[] groups = entities.group;
+		int hits = 0;
+		for(int i = 0; i < n; i++) {
+			if((mask[i] & COLLIDABLE) != COLLIDABLE || groups[i] != group)
+				continue;
+			if(!intersects(entities, i, left, top, right, bottom))
+				continue;
+			hits++;
+			listener.onCollide(entities, i);
+		}
+		return hits;
+	}
+
+	private static boolean intersects(Entities entities, int i, int left,
+			int top, int right, int bottom) {
+		int l = entities.x[i] + entities.colliderX[i];
+		int t = entities.y[i] + entities.colliderY[i];
+		int r = l + entities.colliderWidth[i];
+		int b = t + entities.colliderHeight[i];
+		return !(l >= right || t >= bottom || r <= left || b <= top);
+	}
+
+	/**
+	 * 碰撞处理。
+	 */
+	public interface Listener {
+		/**
+		 * 发生了一次碰撞。
+		 *
+		 * @param entities 实体
+		 * @param id 实体序号
+		 */
+		void onCollide(Entities entities, int id);
+	}
+
+}
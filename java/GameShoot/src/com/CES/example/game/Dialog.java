@@ -12,15 +12,20 @@ import android.graphics.RectF;
 
 /**
  * 对话框类。这个对话框可以有一个按键也可以有两个按键。
+ * <P/>
+ * 对话框由逻辑线程显示，隐藏和修改文字，弹出与关闭的动态效果也在逻辑帧中推进，
+ * 速度与绘制的帧率无关。绘图线程只按快照中记录的状态绘制。
+ * 对话框上的按键作为单独的按键加入快照，绘制在对话框之上。
  * 
  * @author Hong
  *
  */
-public class Dialog extends Layer {
+public class Dialog extends Layer implements WorldSnapshot.Widget {
 	
 	private Paint paint;
 	private RectF rect;
 	private Rect rectTxt;
+	// 弹出与关闭的动态效果的帧，只在逻辑线程中修改。
 	private int step = 0;
 	
 	private String title;
@@ -87,11 +92,19 @@ public class Dialog extends Layer {
 	 */
 	@Override
 	public void paint(Canvas canvas) {
-		if(isVisible())
-			step = (step < 2)? step + 1 : 2;
-		else
-			step = (step > 0)? step - 1 : 0;
-		
+		if(step <= 0)
+			return;
+		paint(canvas, step, getX(), getY(), text);
+		button1.paint(canvas);
+		if(buttonCount == 2)
+			button2.paint(canvas);
+	}
+
+	/**
+	 * 按快照中记录的状态绘制，不包括对话框上的按键。
+	 */
+	@Override
+	public void paint(Canvas canvas, int step, int x, int y, String text) {
 		if(step <= 0)
 			return;
 
@@ -100,14 +113,13 @@ public class Dialog extends Layer {
 		int w = getWidth();
 		int h = getHeight();
 		if(step == 1) {
-			rect.set(getX() + w / 4, getY() + 20, 
-					getX() + (w * 3) / 4, getY() + h - 20);
+			rect.set(x + w / 4, y + 20, x + (w * 3) / 4, y + h - 20);
 			line1 = (int) (rect.top + rect.height() / 3);
 			line2 = (int) (rect.top + (rect.height() * 2) / 3);
 			alpha = 80;
 		}
 		else if(step == 2) {
-			rect.set(getX(), getY(), getX() + w, getY() + h);
+			rect.set(x, y, x + w, y + h);
 			line1 = (int) (rect.top + 60);
 			line2 = (int) (rect.top + rect.height() - 50);
 			alpha = 255;
@@ -124,23 +136,54 @@ public class Dialog extends Layer {
 		canvas.drawLine(rect.left, line1, rect.right, line1, paint);
 		canvas.drawLine(rect.left, line2, rect.right, line2, paint);
 		
-		// 绘制按键
-		button1.paint(canvas);
-		if(buttonCount == 2)
-			button2.paint(canvas);
-		
 		if(step == 2) {
 			// 绘制文字。
 			paint.setStyle(Paint.Style.FILL);
 			paint.setStrokeWidth(2.0f);
 			paint.setTextSize(28.0f);
-			canvas.drawText(title, getX() + 10, getY() + 40, paint);
+			canvas.drawText(title, x + 10, y + 40, paint);
 			paint.getTextBounds(text, 0, text.length(), rectTxt);
 			canvas.drawText(text, rect.centerX() - rectTxt.width() / 2, 
 					rect.centerY(), paint);
 		}
 	}
 
+	/**
+	 * 推进弹出或关闭的动态效果一帧，在逻辑帧中调用。对话框上的按键只在对话框
+	 * 显示时推进。
+	 * 
+	 * @return 对话框或按键的动态效果的帧有变化返回true。
+	 */
+	public boolean update() {
+		int last = step;
+		if(isVisible())
+			step = (step < 2)? step + 1 : 2;
+		else
+			step = (step > 0)? step - 1 : 0;
+		boolean changed = step != last;
+		if(step > 0) {
+			changed |= button1.update();
+			if(buttonCount == 2)
+				changed |= button2.update();
+		}
+		return changed;
+	}
+
+	/**
+	 * 把对话框和它的按键当前的状态加入快照，只能由逻辑线程调用。
+	 * 动态效果已结束并且关闭的对话框不会加入。
+	 * 
+	 * @param snapshot 快照
+	 */
+	public void snapshot(WorldSnapshot snapshot) {
+		if(step <= 0)
+			return;
+		snapshot.addWidget(this, step, getX(), getY(), text);
+		button1.snapshot(snapshot);
+		if(buttonCount == 2)
+			button2.snapshot(snapshot);
+	}
+
 	/**
 	 * 设置可见情况。同时会去设置按键的可见情况。
 	 */
@@ -15,11 +15,32 @@ public class Enemy extends Sprite {
 	public final static int TYPE2 = 2;
 	public final static int TYPE3 = 3;
 	
+	// 每种类型开火的间隔(逻辑帧)，按类型序号索引。
+	private final static int[] firePeriod = new int[]{0, 40, 30, 50};
+	// 类型2散射子弹的水平速度和垂直速度
+	private final static int[] spreadVx = new int[]{-3, 0, 3};
+	private final static int SPREAD_VY = 9;
+	// 类型3一圈子弹的方向数和速度
+	private final static int RING_COUNT = 12;
+	private final static int RING_SPEED = 6;
+	private final static int[] ringVx = new int[RING_COUNT];
+	private final static int[] ringVy = new int[RING_COUNT];
+	
+	static {
+		for(int i = 0; i < RING_COUNT; i++) {
+			double a = 2 * Math.PI * i / RING_COUNT;
+			ringVx[i] = (int) Math.round(RING_SPEED * Math.cos(a));
+			ringVy[i] = (int) Math.round(RING_SPEED * Math.sin(a));
+		}
+	}
+	
+	private GameContext context;
 	private int type;
 	private int score;
 	private int speed;
 	private int live;
 	private boolean isAlive;
+	private int fireCooldown;
 	
 	private int[] flySequence;	// 飞行帧序
 	private int[] bombSequence;	// 爆炸帧序
@@ -28,14 +49,19 @@ public class Enemy extends Sprite {
 	/**
 	 * 构造函数，不同的类型有不同的飞行帧序，爆炸帧序，击中帧，分数和碰撞范围。
 	 * 
+	 * @param context 游戏上下文
 	 * @param image 敌人图片
+	 * @param imageWidth 图片宽
+	 * @param imageHeight 图片高
 	 * @param frameWidth 帧宽
 	 * @param frameHeight 帧高
 	 * @param type 类型
 	 */
-	private Enemy(Bitmap image, int frameWidth, int frameHeight, int type) {
-		super(image, frameWidth, frameHeight);
+	private Enemy(GameContext context, Bitmap image, int imageWidth, 
+			int imageHeight, int frameWidth, int frameHeight, int type) {
+		super(image, imageWidth, imageHeight, frameWidth, frameHeight);
 		
+		this.context = context;
 		this.type = type;
 		this.live = 0;
 		this.isAlive = false;
@@ -68,34 +94,35 @@ public class Enemy extends Sprite {
 	/**
 	 * 创建敌人。不同的类型有不同的图片。
 	 * 
+	 * @param context 游戏上下文
 	 * @param type 敌人类型
 	 * @return 敌人Enemy类的实例
 	 */
-	public static Enemy createEnemy(int type) {
-		Bitmap image = null;
-		int frameWidth = 0;
-		int frameHeight = 0;
+	public static Enemy createEnemy(GameContext context, int type) {
+		String fileName = null;
+		int frames = 0;
 		
 		if(type == TYPE1) {
-			image = GameHelper.getBitmap("enemy1.png");
-			frameWidth = image.getWidth() / 5;
-			frameHeight = image.getHeight();
+			fileName = "enemy1.png";
+			frames = 5;
 		}
 		else if(type == TYPE2) {
-			image = GameHelper.getBitmap("enemy2.png");
-			frameWidth = image.getWidth() / 6;
-			frameHeight = image.getHeight();
+			fileName = "enemy2.png";
+			frames = 6;
 		}
 		else if(type == TYPE3) {
-			image = GameHelper.getBitmap("enemy3.png");
-			frameWidth = image.getWidth() / 9;
-			frameHeight = image.getHeight();
+			fileName = "enemy3.png";
+			frames = 9;
 		}
 		else {
 			throw new IllegalArgumentException("Unkown type enemy.");
 		}
 		
-		Enemy enemy = new Enemy(image, frameWidth, frameHeight, type);
+		Bitmap image = context.getBitmap(fileName);
+		int imageWidth = context.getImageWidth(fileName);
+		int imageHeight = context.getImageHeight(fileName);
+		Enemy enemy = new Enemy(context, image, imageWidth, imageHeight, 
+				imageWidth / frames, imageHeight, type);
 		
 		return enemy;
 	}
@@ -127,6 +154,7 @@ public class Enemy extends Sprite {
 		this.speed = speed;
 		this.live = (type == TYPE1)? 1 : (type == TYPE2)? 15 : 40;
 		this.isAlive = true;
+		this.fireCooldown = firePeriod[type] / 2;
 		setPosition(x, y);
 		setFrameSequence(flySequence);
 		setVisible(true);
@@ -140,10 +168,39 @@ public class Enemy extends Sprite {
 			return;
 		
 		move(0, speed);
-		if(getY() > GameHelper.screenHeight)
+		if(getY() > context.screenHeight)
 			setVisible(false);
 	}
 	
+	/**
+	 * 开火。每个逻辑帧调用一次，到了开火间隔才会发射子弹。只有存活并且已经
+	 * 进入屏幕的敌人才会开火。类型1向下发射一颗比自己快的子弹，类型2向下
+	 * 散射三颗子弹，类型3向四周发射一圈子弹。
+	 * 
+	 * @param shots 敌人子弹
+	 */
+	public void fire(EnemyBulletStore shots) {
+		if(!isAlive || !isVisible() || getY() < 0)
+			return;
+		if(--fireCooldown > 0)
+			return;
+		fireCooldown = firePeriod[type];
+		
+		int x = getX() + getWidth() / 2 - shots.getWidth() / 2;
+		int y = getY() + getHeight() / 2;
+		if(type == TYPE1) {
+			shots.acquire(x, y, 0, speed + 8);
+		}
+		else if(type == TYPE2) {
+			for(int i = 0; i < spreadVx.length; i++)
+				shots.acquire(x, y, spreadVx[i], SPREAD_VY);
+		}
+		else if(type == TYPE3) {
+			for(int i = 0; i < RING_COUNT; i++)
+				shots.acquire(x, y, ringVx[i], ringVy[i]);
+		}
+	}
+	
 	/**
 	 * 被击中。并将当前帧设为击中帧。
 	 */
@@ -156,11 +213,11 @@ public class Enemy extends Sprite {
 			isAlive = false;
 			setFrameSequence(bombSequence);
 			if(type == TYPE1)
-				GameHelper.playSound(R.raw.enemy1_down);
+				context.playSound(R.raw.enemy1_down);
 			else if(type == TYPE2)
-				GameHelper.playSound(R.raw.enemy2_down);
+				context.playSound(R.raw.enemy2_down);
 			else if(type == TYPE3)
-				GameHelper.playSound(R.raw.enemy3_down);
+				context.playSound(R.raw.enemy3_down);
 		}
 	}
 	
@@ -185,6 +242,15 @@ public class Enemy extends Sprite {
 		return isAlive;
 	}
 
+	/**
+	 * 获取剩余的生命值。
+	 * 
+	 * @return 生命值
+	 */
+	public int getLive() {
+		return live;
+	}
+
 	/**
 	 * 获取速度
 	 * 
@@ -0,0 +1,277 @@
+package com.CES.example.game;
+
+import android.graphics.Bitmap;
+
+/**
+ * 敌人子弹仓库。敌人发射的子弹都保存在这里，与BulletStore一样，每颗子弹
+ * 只是几个数组中的一项。
+ * <P/>
+ * 敌人子弹可以向任意方向飞行，所以除了位置还要记录每个逻辑帧的水平与垂直速度。
+ * 子弹使用bullet.png的第二帧，碰撞范围就是整个帧。
+ * <P/>
+ * 数组在构造时按CAPACITY一次分配好，之后不再分配：acquire()占用一个位置，
+ * 子弹死亡后compact()把空出的位置集中到末尾以便重用。满了之后新的子弹会被丢弃，
+ * 丢弃的次数用于监控。
+ *
+ * @author Hong
+ *
+ */
+public class EnemyBulletStore {
+
+	// 容量。三架大飞机同时发射一圈子弹再加上小飞机的子弹也用不完。
+	public final static int CAPACITY = 1024;
+
+	private final Bitmap image;
+	private final int width;
+	private final int height;
+
+	private int count;
+	private final int[] x;
+	private final int[] y;
+	private final int[] vx;
+	private final int[] vy;
+	private final boolean[] alive;
+
+	private int drops;
+
+	/**
+	 * 构造函数。
+	 *
+	 * @param context 游戏上下文
+	 */
+	public EnemyBulletStore(GameContext context) {
+		image = context.getBitmap("bullet.png");
+		width = context.getImageWidth("bullet.png") / 2;
+		height = context.getImageHeight("bullet.png");
+
+		x = new int[CAPACITY];
+		y = new int[CAPACITY];
+		vx = new int[CAPACITY];
+		vy = new int[CAPACITY];
+		alive = new boolean[CAPACITY];
+	}
+
+	/**
+	 * 放入一颗子弹。
+	 *
+	 * @param x 左上角X坐标
+	 * @param y 左上角Y坐标
+	 * @param vx 每个逻辑帧的水平速度
+	 * @param vy 每个逻辑帧的垂直速度
+	 * @return 子弹序号，仓库已满时返回-1，子弹被丢弃。
+	 */
+	public int acquire(int x, int y, int vx, int vy) {
+		if(count == CAPACITY) {
+			drops++;
+			return -1;
+		}
+		int i = count++;
+		this.x[i] = x;
+		this.y[i] = y;
+		this.vx[i] = vx;
+		this.vy[i] = vy;
+		alive[i] = true;
+		return i;
+	}
+
+	/**
+	 * 子弹死亡，位置在compact()之后才能重用。
+	 *
+	 * @param i 子弹序号
+	 */
+	public void release(int i) {
+		alive[i] = false;
+	}
+
+	/**
+	 * 所有存活的子弹移动一个逻辑帧，完全移出屏幕的子弹死亡。
+	 *
+	 * @param screenWidth 屏宽
+	 * @param screenHeight 屏高
+	 */
+	public void move(int screenWidth, int screenHeight) {
+		final int w = width;
+		final int h = height;
+		final int[] x = this.x;
+		final int[] y = this.y;
+		final int[] vx = this.vx;
+		final int[] vy = this.vy;
+		final boolean[] alive = this.alive;
+		for(int i = 0; i < count; i++) {
+			if(!alive[i])
+				continue;
+			int nx = x[i] + vx[i];
+			int ny = y[i] + vy[i];
+			x[i] = nx;
+			y[i] = ny;
+			if(nx <= -w || ny <= -h || nx >= screenWidth || ny >= screenHeight)
+				alive[i] = false;
+		}
+	}
+
+	/**
+	 * 碰撞检测。子弹与一个矩形的碰撞，矩形的右边和下边不包括在内。
+	 * 击中的子弹都会死亡。
+	 *
+	 * @param left 矩形左边
+	 * @param top 矩形上边
+	 * @param right 矩形右边
+	 * @param bottom 矩形下边
+	 * @return 命中的次数
+	 */
+	public int collide(int left, int top, int right, int bottom) {
+		final int w = width;
+		final int h = height;
+		final int[] x = this.x;
+		final int[] y = this.y;
+		final boolean[] alive = this.alive;
+		int hits = 0;
+		for(int i = 0; i < count; i++) {
+			if(!alive[i])
+				continue;
+			int bx = x[i];
+			int by = y[i];
+			if(bx >= right || by >= bottom || bx + w <= left || by + h <= top)
+				continue;
+			alive[i] = false;
+			hits++;
+		}
+		return hits;
+	}
+
+	/**
+	 * 清除死亡的子弹，存活的子弹保持原来的顺序。
+	 */
+	public void compact() {
+		int n = 0;
+		for(int i = 0; i < count; i++) {
+			if(!alive[i])
+				continue;
+			if(n != i) {
+				x[n] = x[i];
+				y[n] = y[i];
+				vx[n] = vx[i];
+				vy[n] = vy[i];
+				alive[n] = true;
+			}
+			n++;
+		}
+		for(int i = n; i < count; i++)
+			alive[i] = false;
+		count = n;
+	}
+
+	/**
+	 * 清除所有子弹。
+	 */
+	public void clear() {
+		for(int i = 0; i < count; i++)
+			alive[i] = false;
+		count = 0;
+	}
+
+	/**
+	 * 子弹数量，包括已死亡但还没有清除的子弹。
+	 *
+	 * @return 数量
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * 获取子弹的X坐标。
+	 *
+	 * @param i 子弹序号
+	 * @return X坐标
+	 */
+	public int getX(int i) {
+		return x[i];
+	}
+
+	/**
+	 * 获取子弹的Y坐标。
+	 *
+	 * @param i 子弹序号
+	 * @return Y坐标
+	 */
+	public int getY(int i) {
+		return y[i];
+	}
+
+	/**
+	 * 获取子弹每个逻辑帧的水平速度。
+	 *
+	 * @param i 子弹序号
+	 * @return 水平速度
+	 */
+	public int getVx(int i) {
+		return vx[i];
+	}
+
+	/**
+	 * 获取子弹每个逻辑帧的垂直速度。
+	 *
+	 * @param i 子弹序号
+	 * @return 垂直速度
+	 */
+	public int getVy(int i) {
+		return vy[i];
+	}
+
+	/**
+	 * 子弹是否存活。
+	 *
+	 * @param i 子弹序号
+	 * @return 存活返回true，否则返回false。
+	 */
+	public boolean isAlive(int i) {
+		return alive[i];
+	}
+
+	/**
+	 * 子弹图片。
+	 *
+	 * @return 图片
+	 */
+	public Bitmap getImage() {
+		return image;
+	}
+
+	/**
+	 * 获取子弹的帧在图片中的X坐标。
+	 *
+	 * @return X坐标
+	 */
+	public int getFrameImageX() {
+		return width;
+	}
+
+	/**
+	 * 子弹宽度，所有子弹都一样。
+	 *
+	 * @return 宽度
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * 子弹高度，所有子弹都一样。
+	 *
+	 * @return 高度
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * 获取因为仓库已满而被丢弃的子弹数。
+	 *
+	 * @return 丢弃的次数
+	 */
+	public int getDrops() {
+		return drops;
+	}
+
+}
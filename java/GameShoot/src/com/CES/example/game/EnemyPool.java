@@ -0,0 +1,110 @@
+package com.CES.example.game;
+
+/**
+ * 敌人回收池。每种类型的敌人各有一个栈，回收和取出都是O(1)的。
+ * <P/>
+ * 每个栈的容量是固定的，栈满时回收的敌人直接丢弃，交给垃圾回收，
+ * 所以回收池不会无限增长。prefill()预先创建游戏中同时最多会出现的敌人，
+ * 之后游戏中就不需要再创建敌人了。类型1的数量由屏高决定，在prefill()中
+ * 按屏高和敌人的高度计算栈的容量，之前类型1的栈容量是0。
+ *
+ * @author Hong
+ *
+ */
+public class EnemyPool implements EntityList.Recycler<Enemy> {
+
+	private final static int TYPE_COUNT = 3;
+	// 类型2和类型3最多保存的敌人数。同时最多有5个和2个，见GameHelper.refreshEnemy。
+	private final static int[] CAPACITY = new int[]{0, 5, 2};
+	// 类型1最慢的速度，见GameHelper.refreshEnemy。
+	private final static int MIN_SPEED1 = 8;
+	// 刷新敌人的间隔(逻辑帧)，见GameWorld.tick。
+	private final static int REFRESH_PERIOD = 2;
+	// 被击毁后爆炸显示的逻辑帧数：5个爆炸帧，每2个逻辑帧换一帧。
+	private final static int BOMB_TICKS = 10;
+
+	private final Enemy[][] stacks;
+	private final int[] sizes;
+
+	/**
+	 * 构造函数。
+	 */
+	public EnemyPool() {
+		stacks = new Enemy[TYPE_COUNT][];
+		for(int t = 0; t < TYPE_COUNT; t++)
+			stacks[t] = new Enemy[CAPACITY[t]];
+		sizes = new int[TYPE_COUNT];
+	}
+
+	/**
+	 * 回收一个敌人。栈满时丢弃。
+	 *
+	 * @param e 敌人
+	 * @return 放入回收池返回true，丢弃返回false。
+	 */
+	@Override
+	public boolean recycle(Enemy e) {
+		int t = e.getType() - Enemy.TYPE1;
+		int n = sizes[t];
+		if(n == stacks[t].length)
+			return false;
+		stacks[t][n] = e;
+		sizes[t] = n + 1;
+		return true;
+	}
+
+	/**
+	 * 取出一个敌人，回收池中没有这种类型时创建一个新的。
+	 *
+	 * @param context 游戏上下文
+	 * @param type 敌人类型
+	 * @return 敌人
+	 */
+	public Enemy obtain(GameContext context, int type) {
+		int t = type - Enemy.TYPE1;
+		if(t < 0 || t >= TYPE_COUNT)
+			throw new IllegalArgumentException("Unkown type.");
+		int n = sizes[t];
+		if(n == 0)
+			return Enemy.createEnemy(context, type);
+		Enemy e = stacks[t][--n];
+		stacks[t][n] = null;
+		sizes[t] = n;
+		return e;
+	}
+
+	/**
+	 * 预先创建敌人放入回收池，每种类型补足到栈的容量。
+	 * <P/>
+	 * 正常游戏中每次刷新最多创建一个敌人，类型1的敌人从屏幕上方出现，
+	 * 最慢也会在(屏高 + 敌人高度) / MIN_SPEED1个逻辑帧内移出屏幕，
+	 * 在这之前被击毁的还要再显示BOMB_TICKS个逻辑帧。这段时间内的刷新次数
+	 * 就是同时存在的类型1敌人的上限，按这个上限设置类型1的栈容量。
+	 *
+	 * @param context 游戏上下文
+	 */
+	public void prefill(GameContext context) {
+		if(stacks[0].length == 0) {
+			Enemy e = Enemy.createEnemy(context, Enemy.TYPE1);
+			int ticks = (context.screenHeight + e.getHeight()) / MIN_SPEED1 + 1 
+					+ BOMB_TICKS;
+			stacks[0] = new Enemy[ticks / REFRESH_PERIOD + 1];
+			recycle(e);
+		}
+		for(int t = 0; t < TYPE_COUNT; t++) {
+			while(sizes[t] < stacks[t].length)
+				recycle(Enemy.createEnemy(context, Enemy.TYPE1 + t));
+		}
+	}
+
+	/**
+	 * 回收池中某种类型的敌人数。
+	 *
+	 * @param type 敌人类型
+	 * @return 敌人数
+	 */
+	public int size(int type) {
+		return sizes[type - Enemy.TYPE1];
+	}
+
+}
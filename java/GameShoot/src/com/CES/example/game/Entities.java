@@ -0,0 +1,335 @@
+package com.CES.example.game;
+
+import android.graphics.Bitmap;
+
+/**
+ * 实体的组件存储。实体只是一个序号，组件按类型分别保存在数组中，
+ * 同一种组件的数据是连续的，系统按序号顺序遍历这些数组。
+ * <P/>
+ * 组件有位置，速度，动画和碰撞范围，每个实体用一个位掩码记录它有哪些组件。移动，动画，碰撞和生成分别由MovementSystem，AnimationSystem，
+ * CollisionSystem和SpawnSystem处理，绘制时由snapshot()把所有有动画组件的
+ * 实体加入快照，新的实体类型不需要新的循环。
+ * <P/>
+ * 销毁的实体序号会被放入空闲栈，创建时优先重用，所以实体存储本身就是一个
+ * 对象池。数组容量不够时会加倍。
+ *
+ * @author Hong
+ *
+ */
+public class Entities {
+
+	// 组件
+	public final static int POSITION	= 1;
+	public final static int VELOCITY	= 1 << 1;
+	public final static int ANIMATION	= 1 << 2;
+	public final static int COLLIDER	= 1 << 3;
+
+	private final static int INIT_CAPACITY = 16;
+
+	// 已用过的最大序号加一，系统遍历[0, count)。
+	int count;
+	// 组件掩码，为0表示这个序号空闲。
+	int[] mask;
+	// 实体所属的组与组内的类型，由使用者定义。
+	int[] group;
+	int[] kind;
+
+	// 位置组件
+	int[] x;
+	int[] y;
+
+	// 速度组件。有轨迹时垂直速度依次取轨迹中的值，最后一个值一直保持。
+	int[] vx;
+	int[] vy;
+	int[][] track;
+	int[] trackIndex;
+
+	// 动画组件。帧在图片中横向排列，每period个逻辑帧换一帧。
+	Bitmap[] image;
+	int[] frameWidth;
+	int[] frameHeight;
+	int[][] sequence;
+	int[] sequenceIndex;
+	int[] period;
+
+	// 碰撞范围组件，相对于位置。
+	int[] colliderX;
+	int[] colliderY;
+	int[] colliderWidth;
+	int[] colliderHeight;
+
+	private int[] free;
+	private int freeCount;
+
+	/**
+	 * 构造函数。
+	 */
+	public Entities() {
+		this(INIT_CAPACITY);
+	}
+
+	/**
+	 * 构造函数。预先分配数组，实体数不超过容量时不会再分配。
+	 *
+	 * @param capacity 初始容量
+	 */
+	public Entities(int capacity) {
+		allocate((capacity > 0)? capacity : INIT_CAPACITY);
+	}
+
+	/**
+	 * 创建一个没有任何组件的实体。
+	 *
+	 * @param group 组
+	 * @param kind 组内的类型
+	 * @return 实体序号
+	 */
+	public int create(int group, int kind) {
+		int id;
+		if(freeCount > 0)
+			id = free[--freeCount];
+		else {
+			if(count == mask.length)
+				allocate(count * 2);
+			id = count++;
+		}
+		mask[id] = 0;
+		this.group[id] = group;
+		this.kind[id] = kind;
+		track[id] = null;
+		image[id] = null;
+		sequence[id] = null;
+		return id;
+	}
+
+	/**
+	 * 销毁一个实体，序号放入空闲栈。
+	 *
+	 * @param id 实体序号
+	 */
+	public void destroy(int id) {
+		if(mask[id] == 0)
+			return;
+		mask[id] = 0;
+		track[id] = null;
+		image[id] = null;
+		sequence[id] = null;
+		free[freeCount++] = id;
+	}
+
+	/**
+	 * 销毁所有实体。
+	 */
+	public void clear() {
+		for(int i = 0; i < count; i++)
+			destroy(i);
+	}
+
+	/**
+	 * 是否有指定的全部组件。空闲的序号没有任何组件。
+	 *
+	 * @param id 实体序号
+	 * @param components 组件掩码
+	 * @return 全部都有返回true。
+	 */
+	public boolean has(int id, int components) {
+		return mask[id] != 0 && (mask[id] & components) == components;
+	}
+
+	/**
+	 * 实体是否存在。
+	 *
+	 * @param id 实体序号
+	 * @return 存在返回true。
+	 */
+	public boolean exists(int id) {
+		return mask[id] != 0;
+	}
+
+	/**
+	 * 已用过的最大序号加一，遍历实体时的上限。
+	 *
+	 * @return 序号上限
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * 存在的实体数。
+	 *
+	 * @return 实体数
+	 */
+	public int size() {
+		return count - freeCount;
+	}
+
+	/**
+	 * 设置位置组件。
+	 *
+	 * @param id 实体序号
+	 * @param x X坐标
+	 * @param y Y坐标
+	 */
+	public void setPosition(int id, int x, int y) {
+		mask[id] |= POSITION;
+		this.x[id] = x;
+		this.y[id] = y;
+	}
+
+	/**
+	 * 设置速度组件。
+	 *
+	 * @param id 实体序号
+	 * @param vx 每个逻辑帧的水平速度
+	 * @param vy 每个逻辑帧的垂直速度
+	 */
+	public void setVelocity(int id, int vx, int vy) {
+		mask[id] |= VELOCITY;
+		this.vx[id] = vx;
+		this.vy[id] = vy;
+		track[id] = null;
+	}
+
+	/**
+	 * 设置按轨迹变化的速度组件。垂直速度依次取轨迹中的值，之后保持最后一个值。
+	 *
+	 * @param id 实体序号
+	 * @param vx 每个逻辑帧的水平速度
+	 * @param track 每个逻辑帧的垂直速度，不会被复制，可以被多个实体共用。
+	 */
+	public void setTrack(int id, int vx, int[] track) {
+		mask[id] |= VELOCITY;
+		this.vx[id] = vx;
+		this.vy[id] = track[0];
+		this.track[id] = track;
+		trackIndex[id] = 0;
+	}
+
+	/**
+	 * 设置动画组件。
+	 *
+	 * @param id 实体序号
+	 * @param image 图片，帧横向排列。无界面运行时可以为null。
+	 * @param frameWidth 帧宽
+	 * @param frameHeight 帧高
+	 * @param sequence 帧序，不会被复制，可以被多个实体共用。
+	 * @param period 每多少个逻辑帧换一帧
+	 */
+	public void setAnimation(int id, Bitmap image, int frameWidth,
+			int frameHeight, int[] sequence, int period) {
+		mask[id] |= ANIMATION;
+		this.image[id] = image;
+		this.frameWidth[id] = frameWidth;
+		this.frameHeight[id] = frameHeight;
+		this.sequence[id] = sequence;
+		sequenceIndex[id] = 0;
+		this.period[id] = (period > 0)? period : 1;
+	}
+
+	/**
+	 * 设置碰撞范围组件。
+	 *
+	 * @param id 实体序号
+	 * @param x 相对于位置的X坐标
+	 * @param y 相对于位置的Y坐标
+	 * @param width 宽
+	 * @param height 高
+	 */
+	public void setCollider(int id, int x, int y, int width, int height) {
+		mask[id] |= COLLIDER;
+		colliderX[id] = x;
+		colliderY[id] = y;
+		colliderWidth[id] = width;
+		colliderHeight[id] = height;
+	}
+
+	public int getGroup(int id) {
+		return group[id];
+	}
+
+	public int getKind(int id) {
+		return kind[id];
+	}
+
+	public int getX(int id) {
+		return x[id];
+	}
+
+	public int getY(int id) {
+		return y[id];
+	}
+
+	/**
+	 * 获取下一次移动的垂直速度，没有速度组件时为0。
+	 *
+	 * @param id 实体序号
+	 * @return 垂直速度
+	 */
+	public int getNextVy(int id) {
+		if((mask[id] & VELOCITY) == 0)
+			return 0;
+		return (track[id] != null)? track[id][trackIndex[id]] : vy[id];
+	}
+
+	/**
+	 * 把所有有位置与动画组件的实体按序号顺序加入快照。
+	 *
+	 * @param snapshot 快照
+	 */
+	public void snapshot(WorldSnapshot snapshot) {
+		final int drawable = POSITION | ANIMATION;
+		for(int i = 0; i < count; i++) {
+			if((mask[i] & drawable) != drawable)
+				continue;
+			int w = frameWidth[i];
+			snapshot.add(image[i], sequence[i][sequenceIndex[i]] * w, 0,
+					w, frameHeight[i], x[i], y[i], getNextVy(i));
+		}
+	}
+
+	/**
+	 * 分配或扩大所有组件数组。
+	 *
+	 * @param n 新的容量
+	 */
+	private void allocate(int n) {
+		mask = copyOf(mask, n);
+		group = copyOf(group, n);
+		kind = copyOf(kind, n);
+		x = copyOf(x, n);
+		y = copyOf(y, n);
+		vx = copyOf(vx, n);
+		vy = copyOf(vy, n);
+		trackIndex = copyOf(trackIndex, n);
+		frameWidth = copyOf(frameWidth, n);
+		frameHeight = copyOf(frameHeight, n);
+		sequenceIndex = copyOf(sequenceIndex, n);
+		period = copyOf(period, n);
+		colliderX = copyOf(colliderX, n);
+		colliderY = copyOf(colliderY, n);
+		colliderWidth = copyOf(colliderWidth, n);
+		colliderHeight = copyOf(colliderHeight, n);
+		free = copyOf(free, n);
+
+		int[][] newTrack = new int[n][];
+		int[][] newSequence = new int[n][];
+		Bitmap[] newImage = new Bitmap[n];
+		if(track != null) {
+			System.arraycopy(track, 0, newTrack, 0, count);
+			System.arraycopy(sequence, 0, newSequence, 0, count);
+			System.arraycopy(image, 0, newImage, 0, count);
+		}
+		track = newTrack;
+		sequence = newSequence;
+		image = newImage;
+	}
+
+	private int[] copyOf(int[] src, int n) {
+		int[] dst = new int[n];
+		if(src != null)
+			System.arraycopy(src, 0, dst, 0, count);
+		return dst;
+	}
+
+}
@@ -0,0 +1,111 @@
+package com.CES.example.game;
+
+import javax.microedition.lcdui.game.Layer;
+
+/**
+ * 游戏元素列表。用数组保存，按序号访问，遍历时不需要Iterator。
+ * <P/>
+ * 不可见的元素由removeInvisible()一次遍历清除，剩下的元素保持原来的顺序，
+ * 所以绘制顺序不会改变。数组容量不够时会加倍，之后就一直重用，
+ * 平时的添加与清除都不会分配对象。
+ *
+ * @author Hong
+ *
+ * @param <T> 元素类型
+ */
+public class EntityList<T extends Layer> {
+
+	private final static int INIT_CAPACITY = 32;
+
+	private Object[] items;
+	private int size;
+
+	/**
+	 * 构造函数。
+	 */
+	public EntityList() {
+		items = new Object[INIT_CAPACITY];
+	}
+
+	/**
+	 * 加入一个元素。
+	 *
+	 * @param e 元素
+	 */
+	public void add(T e) {
+		if(size == items.length) {
+			Object[] newItems = new Object[size * 2];
+			System.arraycopy(items, 0, newItems, 0, size);
+			items = newItems;
+		}
+		items[size++] = e;
+	}
+
+	/**
+	 * 获取元素。
+	 *
+	 * @param i 序号
+	 * @return 元素
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int i) {
+		return (T) items[i];
+	}
+
+	/**
+	 * 元素数量。
+	 *
+	 * @return 数量
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 清除所有元素。
+	 */
+	public void clear() {
+		for(int i = 0; i < size; i++)
+			items[i] = null;
+		size = 0;
+	}
+
+	/**
+	 * 清除不可见的元素，剩下的元素保持原来的顺序。
+	 *
+	 * @param recycler 被清除的元素交给它回收，可以为null。
+	 * @return 清除的元素数
+	 */
+	@SuppressWarnings("unchecked")
+	public int removeInvisible(Recycler<? super T> recycler) {
+		int n = 0;
+		for(int i = 0; i < size; i++) {
+			T e = (T) items[i];
+			if(e.isVisible())
+				items[n++] = e;
+			else if(recycler != null)
+				recycler.recycle(e);
+		}
+		int removed = size - n;
+		for(int i = n; i < size; i++)
+			items[i] = null;
+		size = n;
+		return removed;
+	}
+
+	/**
+	 * 回收器。
+	 *
+	 * @param <T> 元素类型
+	 */
+	public interface Recycler<T> {
+		/**
+		 * 回收一个元素。
+		 *
+		 * @param e 元素
+		 * @return 被回收返回true，被丢弃返回false。
+		 */
+		boolean recycle(T e);
+	}
+
+}
@@ -1,16 +1,18 @@
 package com.CES.example.game;
 
-import javax.microedition.lcdui.game.Sprite;
-
 import android.graphics.Bitmap;
 
 /**
- * 装备类，继承于Sprite。在两类型：一个是双枪，另一个是炸弹。
+ * 装备。装备是Entities中的实体，这个类定义了装备的组件。有两种类型：
+ * 一个是双枪，另一个是炸弹。装备按特定的速度轨迹移动，移出屏幕下方后被销毁。
  * 
  * @author Hong
  *
  */
-public class Equipment extends Sprite {
+public class Equipment {
+	
+	// 装备实体的组
+	public final static int GROUP = 1;
 	
 	public final static int TYPE_DOUBLE	= 0;
 	public final static int TYPE_BOMB	= 1;
@@ -19,60 +21,57 @@ public class Equipment extends Sprite {
 	private static int[] speed = new int[]{50, 50, 40, 25, -10,
 		-40, -40, -35, 0, 40, 45, 50, 60};
 	
-	private int type;
-	private int speedIndex;
-
-	/**
-	 * 构造函数。
-	 * 
-	 * @param image 装备图片。
-	 * @param frameWidth 帧宽
-	 * @param frameHeight 帧高
-	 * @param type 类型
-	 */
-	private Equipment(Bitmap image, int frameWidth, int frameHeight, int type) {
-		super(image, frameWidth, frameHeight);
-		setFrameSequence(sequence[type]);
-		defineCollisionRectangle(10, 10, 50, 90);
-		this.type = type;
-		this.speedIndex = 0;
+	private Equipment() {
 	}
 	
 	/**
-	 * 创建装备。
+	 * 创建装备实体。
 	 * 
+	 * @param entities 实体
+	 * @param context 游戏上下文
 	 * @param type 类型
-	 * @return 一个装备Equipment实例。
+	 * @param x X坐标
+	 * @param y Y坐标
+	 * @return 实体序号
 	 */
-	public static Equipment createEquipment(int type) {
+	public static int createEquipment(Entities entities, GameContext context, 
+			int type, int x, int y) {
 		if(type != TYPE_DOUBLE && type != TYPE_BOMB)
 			throw new IllegalArgumentException("Unkown type.");
 		
-		Bitmap image = GameHelper.getBitmap("equip.png");
-		int frameWidth = image.getWidth() / 2;
-		int frameHeight = image.getHeight();
-		Equipment equip = new Equipment(image, frameWidth, frameHeight, type);
+		Bitmap image = context.getBitmap("equip.png");
+		int imageHeight = context.getImageHeight("equip.png");
 		
-		return equip;
+		int id = entities.create(GROUP, type);
+		entities.setPosition(id, x, y);
+		entities.setTrack(id, 0, speed);
+		entities.setAnimation(id, image, getWidth(context), imageHeight, 
+				sequence[type], 1);
+		entities.setCollider(id, 10, 10, 50, 90);
+		return id;
 	}
-
+	
 	/**
-	 * 获取类型
+	 * 获取装备的宽。
 	 * 
-	 * @return 类型
+	 * @param context 游戏上下文
+	 * @return 帧宽
 	 */
-	public int getType() {
-		return type;
+	public static int getWidth(GameContext context) {
+		return context.getImageWidth("equip.png") / 2;
 	}
 	
 	/**
-	 * 移动。这个移动是有一个特定的轨迹。
+	 * 玩家拾取装备。根据装备的类型对玩家做不同的动作。
+	 * 
+	 * @param player 玩家
+	 * @param type 类型
 	 */
-	public void move() {
-		move(0, speed[speedIndex]);
-		speedIndex = (speedIndex == speed.length - 1)? speedIndex : speedIndex + 1;
-		if(getY() > GameHelper.screenHeight)
-			setVisible(false);
+	public static void pickUp(Player player, int type) {
+		if(type == TYPE_DOUBLE)
+			player.doubleGun();
+		else if(type == TYPE_BOMB)
+			player.addBomb();
 	}
 
 }
@@ -0,0 +1,156 @@
+package com.CES.example.game;
+
+/**
+ * 装备管理器。所有的装备都保存在一个专用的Entities中，数组按容量预先分配，
+ * 装备销毁后序号被重用，所以同时存在多个装备也不会分配对象。
+ * <P/>
+ * 移动时一次遍历所有装备，每个装备按Equipment的速度轨迹移动；
+ * 与玩家的碰撞也是一次遍历完成。装备数量达到容量时不再创建新的装备。
+ *
+ * @author Hong
+ *
+ */
+public class EquipmentManager {
+
+	// 同时存在的装备数上限
+	public final static int CAPACITY = 32;
+	// 默认每30秒创建一个装备
+	public final static int SPAWN_INTERVAL = 10000 * 3;
+
+	private GameContext context;
+	private Entities entities;
+	private MovementSystem movement;
+	private AnimationSystem animation;
+	private CollisionSystem collision;
+	private SpawnSystem spawner;
+	private CollisionSystem.Listener pickUp;
+	private Player player;
+	private int dropped;
+
+	/**
+	 * 构造函数。
+	 *
+	 * @param context 游戏上下文
+	 */
+	public EquipmentManager(GameContext context) {
+		this.context = context;
+		entities = new Entities(CAPACITY);
+		movement = new MovementSystem();
+		animation = new AnimationSystem();
+		collision = new CollisionSystem();
+		setSpawnInterval(SPAWN_INTERVAL);
+		pickUp = new CollisionSystem.Listener() {
+			@Override
+			public void onCollide(Entities entities, int id) {
+				Equipment.pickUp(player, entities.getKind(id));
+				entities.destroy(id);
+			}
+		};
+	}
+
+	/**
+	 * 设置定时创建装备的周期。
+	 *
+	 * @param interval 周期(毫秒)，应该是逻辑帧时间的整数倍。
+	 */
+	public void setSpawnInterval(int interval) {
+		spawner = new SpawnSystem(interval, new SpawnSystem.Spawner() {
+			@Override
+			public void spawn(Entities entities, GameContext context) {
+				GameHelper.createEquipment(context, EquipmentManager.this);
+			}
+		});
+	}
+
+	/**
+	 * 创建一个装备。
+	 *
+	 * @param type 类型
+	 * @param x X坐标
+	 * @param y Y坐标
+	 * @return 实体序号，装备已满时返回-1。
+	 */
+	public int spawn(int type, int x, int y) {
+		if(entities.size() >= CAPACITY) {
+			dropped++;
+			return -1;
+		}
+		return Equipment.createEquipment(entities, context, type, x, y);
+	}
+
+	/**
+	 * 清除所有装备。
+	 */
+	public void clear() {
+		entities.clear();
+	}
+
+	/**
+	 * 移动所有装备并换帧。移出屏幕的装备会被销毁。
+	 *
+	 * @param tickCount 当前的逻辑帧数
+	 */
+	public void update(int tickCount) {
+		movement.update(entities, context.screenHeight);
+		animation.update(entities, tickCount);
+	}
+
+	/**
+	 * 到了周期就创建一个装备，在游戏时间更新之后调用。
+	 */
+	public void refresh() {
+		spawner.update(entities, context);
+	}
+
+	/**
+	 * 碰撞检测。一次遍历检测玩家与所有装备的碰撞，碰到的装备被拾取。
+	 *
+	 * @param player 玩家
+	 * @return 拾取的装备数
+	 */
+	public int collideDetect(Player player) {
+		if(!player.isAlive() || !player.isVisible())
+			return 0;
+		this.player = player;
+		return collision.collide(entities, Equipment.GROUP, 
+				player.getCollisionLeft(), player.getCollisionTop(), 
+				player.getCollisionRight(), player.getCollisionBottom(), pickUp);
+	}
+
+	/**
+	 * 把所有装备加入快照。
+	 *
+	 * @param snapshot 快照
+	 */
+	public void snapshot(WorldSnapshot snapshot) {
+		entities.snapshot(snapshot);
+	}
+
+	/**
+	 * 获取装备实体。
+	 *
+	 * @return 实体
+	 */
+	public Entities getEntities() {
+		return entities;
+	}
+
+	/**
+	 * 当前的装备数。
+	 *
+	 * @return 装备数
+	 */
+	public int size() {
+		return entities.size();
+	}
+
+	/**
+	 * 因为装备已满而没有创建的次数。
+	 *
+	 * @return 次数
+	 */
+	public int getDropped() {
+		return dropped;
+	}
+
+}
@@ -0,0 +1,270 @@
+package com.CES.example.game;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * 帧节拍器。用System.nanoTime控制绘图线程的帧间隔，代替毫秒精度的
+ * Thread.sleep，避免帧间隔忽长忽短造成画面抖动。
+ * <P/>
+ * 在Android 4.1及以上的系统中会通过Choreographer的帧回调获取屏幕垂直同步
+ * 的时间，并把每一帧的目标时间对齐到垂直同步上。低版本系统则只按屏幕的刷新
+ * 周期计时。
+ * <P/>
+ * 每一帧实际开始时间与目标时间的偏差会被记录下来作为抖动的统计。一旦落后超过
+ * 一个周期，就放弃错过的帧并重新对齐，所以偏差不会累积。
+ *
+ * @author Hong
+ *
+ */
+public class FramePacer {
+
+	// 在目标时间前这么长的时间内不再sleep而是让出CPU等待，弥补sleep的精度不足。
+	private final static long SPIN_TIME = 1000000L;
+
+	private final long period;
+	private long nextFrameTime;
+	private volatile long vsyncTime;
+	private VsyncListener vsyncListener;
+
+	// 抖动统计
+	private int frameCount;
+	private int droppedFrames;
+	private long jitterSum;
+	private long maxJitter;
+	private long lastJitter;
+
+	/**
+	 * 构造函数。
+	 *
+	 * @param refreshRate 屏幕刷新率(Hz)，不合法时按60Hz计算。
+	 */
+	public FramePacer(float refreshRate) {
+		if(refreshRate < 1.0f)
+			refreshRate = 60.0f;
+		this.period = (long) (1000000000L / refreshRate);
+	}
+
+	/**
+	 * 开始计时。如果系统支持，会开始监听垂直同步。
+	 */
+	public void start() {
+		nextFrameTime = System.nanoTime() + period;
+		vsyncTime = 0;
+		resetStats();
+		if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+			if(vsyncListener == null)
+				vsyncListener = new VsyncListener(this);
+			vsyncListener.start();
+		}
+	}
+
+	/**
+	 * 停止计时，同时停止监听垂直同步。
+	 */
+	public void stop() {
+		if(vsyncListener != null)
+			vsyncListener.stop();
+	}
+
+	/**
+	 * 暂停计时，绘图线程长时间等待之前调用。会停止监听垂直同步，统计保留。
+	 */
+	public void pause() {
+		if(vsyncListener != null)
+			vsyncListener.stop();
+	}
+
+	/**
+	 * 从暂停中恢复。下一帧立即开始，暂停的时间不计入抖动与丢帧的统计。
+	 */
+	public void resume() {
+		nextFrameTime = System.nanoTime();
+		if(vsyncListener != null)
+			vsyncListener.start();
+	}
+
+	/**
+	 * 等待到下一帧的开始时间。
+	 *
+	 * @return 这一帧实际开始的时间(纳秒)。
+	 */
+	public long awaitNextFrame() {
+		long target = alignToVsync(nextFrameTime);
+
+		long remaining = target - System.nanoTime();
+		if(remaining > SPIN_TIME) {
+			long sleep = remaining - SPIN_TIME;
+			try {
+				Thread.sleep(sleep / 1000000L, (int) (sleep % 1000000L));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		long now = System.nanoTime();
+		while(now < target && !Thread.currentThread().isInterrupted()) {
+			Thread.yield();
+			now = System.nanoTime();
+		}
+
+		// 记录抖动。落后一个周期以上时丢弃错过的帧，从现在重新开始计时。
+		long jitter = now - target;
+		if(jitter > period) {
+			droppedFrames += (int) (jitter / period);
+			nextFrameTime = now + period;
+		}
+		else
+			nextFrameTime = target + period;
+
+		if(jitter < 0)
+			jitter = -jitter;
+		lastJitter = jitter;
+		jitterSum += jitter;
+		if(jitter > maxJitter)
+			maxJitter = jitter;
+		frameCount++;
+
+		return now;
+	}
+
+	/**
+	 * 将时间对齐到离它最近的一次垂直同步。没有垂直同步信息时原样返回。
+	 *
+	 * @param time 时间(纳秒)
+	 * @return 对齐后的时间(纳秒)
+	 */
+	private long alignToVsync(long time) {
+		long vsync = vsyncTime;
+		if(vsync == 0)
+			return time;
+
+		long phase = (time - vsync) % period;
+		if(phase < 0)
+			phase += period;
+		if(phase < period / 2)
+			return time - phase;
+		else
+			return time - phase + period;
+	}
+
+	/**
+	 * 清空抖动统计。
+	 */
+	public void resetStats() {
+		frameCount = 0;
+		droppedFrames = 0;
+		jitterSum = 0;
+		maxJitter = 0;
+		lastJitter = 0;
+	}
+
+	/**
+	 * 获取帧周期。
+	 *
+	 * @return 帧周期(纳秒)
+	 */
+	public long getPeriod() {
+		return period;
+	}
+
+	/**
+	 * 获取最近一帧的抖动，即实际开始时间与目标时间之差的绝对值。
+	 *
+	 * @return 抖动(纳秒)
+	 */
+	public long getLastJitter() {
+		return lastJitter;
+	}
+
+	/**
+	 * 获取平均抖动。
+	 *
+	 * @return 平均抖动(纳秒)
+	 */
+	public long getAverageJitter() {
+		return (frameCount == 0)? 0 : jitterSum / frameCount;
+	}
+
+	/**
+	 * 获取最大抖动。
+	 *
+	 * @return 最大抖动(纳秒)
+	 */
+	public long getMaxJitter() {
+		return maxJitter;
+	}
+
+	/**
+	 * 获取因落后而丢弃的帧数。
+	 *
+	 * @return 丢弃的帧数
+	 */
+	public int getDroppedFrames() {
+		return droppedFrames;
+	}
+
+	/**
+	 * 是否已对齐到垂直同步。
+	 *
+	 * @return 已收到垂直同步时间返回true，否则返回false。
+	 */
+	public boolean isVsyncAligned() {
+		return vsyncTime != 0;
+	}
+
+	/**
+	 * 垂直同步监听器。Choreographer只能在有Looper的线程上使用，
+	 * 所以帧回调是在主线程上注册的，每次回调只记录垂直同步的时间。
+	 *
+	 * @author Hong
+	 *
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	private static class VsyncListener implements Choreographer.FrameCallback {
+
+		private final FramePacer pacer;
+		private final Handler handler;
+		private volatile boolean isListening;
+
+		private final Runnable register = new Runnable() {
+			@Override
+			public void run() {
+				Choreographer.getInstance().postFrameCallback(VsyncListener.this);
+			}
+		};
+
+		private final Runnable unregister = new Runnable() {
+			@Override
+			public void run() {
+				Choreographer.getInstance().removeFrameCallback(VsyncListener.this);
+			}
+		};
+
+		VsyncListener(FramePacer pacer) {
+			this.pacer = pacer;
+			this.handler = new Handler(Looper.getMainLooper());
+		}
+
+		void start() {
+			isListening = true;
+			handler.post(register);
+		}
+
+		void stop() {
+			isListening = false;
+			handler.post(unregister);
+		}
+
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			if(!isListening)
+				return;
+			pacer.vsyncTime = frameTimeNanos;
+			Choreographer.getInstance().postFrameCallback(this);
+		}
+	}
+
+}
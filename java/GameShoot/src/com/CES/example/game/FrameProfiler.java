@@ -0,0 +1,303 @@
+package com.CES.example.game;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+/**
+ * 帧性能分析器。记录每一帧各个阶段的耗时，用于找出是哪个阶段超出了帧时间。
+ * <P/>
+ * 每个阶段的耗时记录在一个固定大小的直方图里，每格100微秒，超过最大值的计入
+ * 最后一格。记录时只是给某一格加一，不会分配内存。每个阶段只由一个线程记录：
+ * 逻辑帧的阶段由逻辑线程记录，绘制的阶段由绘图线程记录。
+ * <P/>
+ * 另外还有几个由绘图线程设置的计数，如帧间隔的抖动和丢弃的帧数，和各阶段一起
+ * 绘制和输出。
+ * <P/>
+ * 可以把各阶段的p50，p95，p99绘制在屏幕上，也可以输出到文件。绘制时文字写在
+ * 重用的字符数组中，不创建字符串，所以不会影响正在测量的绘制。
+ *
+ * @author Hong
+ *
+ */
+public class FrameProfiler {
+
+	// 逻辑帧的阶段
+	public final static int TICK				= 0;
+	public final static int COLLIDE_BULLETS		= 1;
+	public final static int COLLIDE_EQUIPMENT	= 2;
+	public final static int COLLIDE_SHOTS		= 3;
+	public final static int COLLIDE_ENEMYS		= 4;
+	public final static int REFRESH_ENEMY		= 5;
+	public final static int CLEAR_BULLETS		= 6;
+	public final static int FIRE				= 7;
+	// 绘制的阶段
+	public final static int FRAME				= 8;
+	public final static int PAINT_BACKGROUND	= 9;
+	public final static int PAINT_SPRITES		= 10;
+	public final static int POST_CANVAS			= 11;
+	public final static int PHASE_COUNT			= 12;
+	// 绘图线程设置的计数
+	public final static int JITTER_AVERAGE		= 0;
+	public final static int JITTER_MAX			= 1;
+	public final static int DROPPED_FRAMES		= 2;
+	public final static int SKIPPED_FRAMES		= 3;
+	public final static int COUNTER_COUNT		= 4;
+
+	private final static String[] names = new String[] {"tick",
+		"collide bullets", "collide equip", "collide shots", "collide enemys",
+		"refresh enemy", "clear bullets", "fire", "frame", "paint background",
+		"paint sprites", "post canvas"};
+	private final static String[] counterNames = new String[] {
+		"jitter avg (us)", "jitter max (us)", "dropped frames",
+		"skipped frames"};
+
+	// 直方图每格的宽度(纳秒)和格数
+	private final static long BUCKET_TIME = 100000L;
+	private final static int BUCKET_COUNT = 1000;
+
+	private final int[][] buckets;
+	private final int[] counts;
+	private final long[] maxTimes;
+	private final long[] counters;
+	private Paint paint;
+	// 绘制时的一行文字，只在绘图线程中使用。
+	private final char[] line = new char[64];
+
+	/**
+	 * 构造函数。
+	 */
+	public FrameProfiler() {
+		buckets = new int[PHASE_COUNT][BUCKET_COUNT + 1];
+		counts = new int[PHASE_COUNT];
+		maxTimes = new long[PHASE_COUNT];
+		counters = new long[COUNTER_COUNT];
+	}
+
+	/**
+	 * 记录一个阶段的耗时。
+	 *
+	 * @param phase 阶段
+	 * @param start 阶段开始的时间(纳秒)，由System.nanoTime获得。
+	 * @return 当前时间(纳秒)，可以作为下一个阶段的开始时间。
+	 */
+	public long record(int phase, long start) {
+		long now = System.nanoTime();
+		long time = now - start;
+		int index = (int) (time / BUCKET_TIME);
+		if(index > BUCKET_COUNT || index < 0)
+			index = BUCKET_COUNT;
+		buckets[phase][index]++;
+		counts[phase]++;
+		if(time > maxTimes[phase])
+			maxTimes[phase] = time;
+		return now;
+	}
+
+	/**
+	 * 获取一个阶段耗时的百分位数。
+	 *
+	 * @param phase 阶段
+	 * @param percent 百分位，取值(0, 100]
+	 * @return 耗时(微秒)，没有记录时返回0。
+	 */
+	public int getPercentile(int phase, int percent) {
+		int count = counts[phase];
+		if(count == 0)
+			return 0;
+
+		int target = (int) (((long) count * percent + 99) / 100);
+		int sum = 0;
+		int[] b = buckets[phase];
+		for(int i = 0; i < BUCKET_COUNT; i++) {
+			sum += b[i];
+			if(sum >= target)
+				return (int) ((i + 1) * BUCKET_TIME / 1000);
+		}
+		return (int) (maxTimes[phase] / 1000);
+	}
+
+	/**
+	 * 获取一个阶段的记录次数。
+	 *
+	 * @param phase 阶段
+	 * @return 记录次数
+	 */
+	public int getCount(int phase) {
+		return counts[phase];
+	}
+
+	/**
+	 * 获取阶段的名称。
+	 *
+	 * @param phase 阶段
+	 * @return 名称
+	 */
+	public static String getName(int phase) {
+		return names[phase];
+	}
+
+	/**
+	 * 设置一个计数。
+	 *
+	 * @param counter 计数
+	 * @param value 值
+	 */
+	public void setCounter(int counter, long value) {
+		counters[counter] = value;
+	}
+
+	/**
+	 * 获取一个计数。
+	 *
+	 * @param counter 计数
+	 * @return 值
+	 */
+	public long getCounter(int counter) {
+		return counters[counter];
+	}
+
+	/**
+	 * 清除所有记录。
+	 */
+	public void reset() {
+		for(int i = 0; i < PHASE_COUNT; i++) {
+			int[] b = buckets[i];
+			for(int j = 0; j < b.length; j++)
+				b[j] = 0;
+			counts[i] = 0;
+			maxTimes[i] = 0;
+		}
+		for(int i = 0; i < COUNTER_COUNT; i++)
+			counters[i] = 0;
+	}
+
+	/**
+	 * 把各阶段的统计绘制在屏幕左上方。
+	 *
+	 * @param canvas 画布
+	 */
+	public void paint(Canvas canvas) {
+		if(paint == null) {
+			paint = new Paint();
+			paint.setAntiAlias(true);
+			paint.setTextSize(18.0f);
+		}
+
+		int y = 80;
+		paint.setColor(Color.argb(160, 0, 0, 0));
+		canvas.drawRect(0, y - 20, 360,
+				y + (PHASE_COUNT + COUNTER_COUNT) * 22 + 6, paint);
+		paint.setColor(Color.WHITE);
+		canvas.drawText("phase  p50/p95/p99 (ms)", 6, y, paint);
+		for(int i = 0; i < PHASE_COUNT; i++) {
+			y += 22;
+			int n = append(line, 0, names[i]);
+			n = append(line, n, "  ");
+			n = appendMillis(line, n, getPercentile(i, 50));
+			n = append(line, n, " / ");
+			n = appendMillis(line, n, getPercentile(i, 95));
+			n = append(line, n, " / ");
+			n = appendMillis(line, n, getPercentile(i, 99));
+			canvas.drawText(line, 0, n, 6, y, paint);
+		}
+		for(int i = 0; i < COUNTER_COUNT; i++) {
+			y += 22;
+			int n = append(line, 0, counterNames[i]);
+			n = append(line, n, "  ");
+			n = appendNumber(line, n, counters[i]);
+			canvas.drawText(line, 0, n, 6, y, paint);
+		}
+	}
+
+	/**
+	 * 把各阶段的统计写入文件。
+	 *
+	 * @param fileName 文件名
+	 * @throws IOException 写文件失败
+	 */
+	public void dump(String fileName) throws IOException {
+		Writer writer = new FileWriter(fileName);
+		try {
+			dump(writer);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * 把各阶段的统计写出，每个阶段一行，单位为微秒。之后是各个计数，每个一行。
+	 *
+	 * @param writer 输出
+	 * @throws IOException 写出失败
+	 */
+	public void dump(Writer writer) throws IOException {
+		writer.write("phase,count,p50,p95,p99,max\n");
+		for(int i = 0; i < PHASE_COUNT; i++) {
+			writer.write(names[i] + "," + counts[i] + ","
+					+ getPercentile(i, 50) + "," + getPercentile(i, 95) + ","
+					+ getPercentile(i, 99) + "," + maxTimes[i] / 1000 + "\n");
+		}
+		writer.write("counter,value\n");
+		for(int i = 0; i < COUNTER_COUNT; i++)
+			writer.write(counterNames[i] + "," + counters[i] + "\n");
+	}
+
+	/**
+	 * 把字符串写入字符数组。
+	 *
+	 * @param buffer 字符数组
+	 * @param start 开始的位置
+	 * @param s 字符串
+	 * @return 文字结束的位置
+	 */
+	private static int append(char[] buffer, int start, String s) {
+		s.getChars(0, s.length(), buffer, start);
+		return start + s.length();
+	}
+
+	/**
+	 * 把微秒换成毫秒写入字符数组，保留一位小数。
+	 *
+	 * @param buffer 字符数组
+	 * @param start 开始的位置
+	 * @param micros 微秒，不能小于0。
+	 * @return 文字结束的位置
+	 */
+	private static int appendMillis(char[] buffer, int start, int micros) {
+		int end = appendNumber(buffer, start, micros / 1000);
+		buffer[end++] = '.';
+		buffer[end++] = (char) ('0' + (micros % 1000) / 100);
+		return end;
+	}
+
+	/**
+	 * 把一个整数的十进制文字写入字符数组，负数前面加上负号。
+	 * GameView绘制得分时也使用它，不创建字符串。
+	 *
+	 * @param buffer 字符数组
+	 * @param start 开始的位置
+	 * @param value 整数
+	 * @return 文字结束的位置
+	 */
+	static int appendNumber(char[] buffer, int start, long value) {
+		if(value < 0)
+			buffer[start++] = '-';
+		int end = start;
+		do {
+			buffer[end++] = (char) ('0' + Math.abs(value % 10));
+			value /= 10;
+		} while(value != 0);
+		for(int i = start, j = end - 1; i < j; i++, j--) {
+			char c = buffer[i];
+			buffer[i] = buffer[j];
+			buffer[j] = c;
+		}
+		return end;
+	}
+
+}
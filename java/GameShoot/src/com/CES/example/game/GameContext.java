@@ -0,0 +1,155 @@
+package com.CES.example.game;
+
+import java.util.Random;
+
+import android.graphics.Bitmap;
+
+/**
+ * 游戏上下文。保存游戏逻辑需要的屏幕大小，随机数，游戏时间，回收的敌人，
+ * 碰撞检测用的网格，X区间排序与事件，并提供图片与音效。游戏元素都通过它
+ * 访问这些内容，而不是直接访问GameHelper的静态变量，这样游戏逻辑就可以
+ * 脱离Android环境运行。
+ *
+ * @author Hong
+ *
+ */
+public abstract class GameContext {
+
+	final int screenWidth;
+	final int screenHeight;
+	final Random random;
+	final EnemyPool enemyPool;
+	final SpatialGrid grid;
+	final SweepAndPrune sweep;
+	final CollisionEvents events;
+	// 子弹碰撞检测的并行执行器
+	ParallelCollider collider;
+	long time;
+	// 压力模式，为null时是正常游戏。
+	StressMode stress;
+
+	/**
+	 * 构造函数。
+	 *
+	 * @param screenWidth 屏宽
+	 * @param screenHeight 屏高
+	 * @param random 随机数生成器
+	 */
+	protected GameContext(int screenWidth, int screenHeight, Random random) {
+		this.screenWidth = screenWidth;
+		this.screenHeight = screenHeight;
+		this.random = random;
+		this.enemyPool = new EnemyPool();
+		this.grid = new SpatialGrid(screenWidth, screenHeight, 
+				EnemyBulletStore.CAPACITY);
+		this.sweep = new SweepAndPrune();
+		this.events = new CollisionEvents(GameHelper.BULLET_STEPS);
+		this.collider = new ParallelCollider();
+		this.time = 0;
+	}
+
+	/**
+	 * 获取图片。
+	 *
+	 * @param fileName 图片资源的名称
+	 * @return 图片的Bitmap类实例，没有图片时返回null。
+	 */
+	public abstract Bitmap getBitmap(String fileName);
+
+	/**
+	 * 获取图片的宽。
+	 *
+	 * @param fileName 图片资源的名称
+	 * @return 图片的宽
+	 */
+	public abstract int getImageWidth(String fileName);
+
+	/**
+	 * 获取图片的高。
+	 *
+	 * @param fileName 图片资源的名称
+	 * @return 图片的高
+	 */
+	public abstract int getImageHeight(String fileName);
+
+	/**
+	 * 播放游戏音效。
+	 *
+	 * @param id 声音资源ID
+	 */
+	public abstract void playSound(int id);
+
+	/**
+	 * 获取屏宽。
+	 *
+	 * @return 屏宽
+	 */
+	public int getScreenWidth() {
+		return screenWidth;
+	}
+
+	/**
+	 * 获取屏高。
+	 *
+	 * @return 屏高
+	 */
+	public int getScreenHeight() {
+		return screenHeight;
+	}
+
+	/**
+	 * 获取压力模式。
+	 *
+	 * @return 压力模式，正常游戏时为null。
+	 */
+	public StressMode getStressMode() {
+		return stress;
+	}
+
+	/**
+	 * 获取碰撞检测用的网格。
+	 *
+	 * @return 网格
+	 */
+	public SpatialGrid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * 获取子弹与敌人碰撞检测用的X区间排序。
+	 *
+	 * @return X区间排序
+	 */
+	public SweepAndPrune getSweep() {
+		return sweep;
+	}
+
+	/**
+	 * 获取子弹碰撞检测的并行执行器。
+	 *
+	 * @return 并行执行器
+	 */
+	public ParallelCollider getCollider() {
+		return collider;
+	}
+
+	/**
+	 * 设置子弹碰撞检测的并行执行器，原来的会被停止。
+	 *
+	 * @param collider 并行执行器
+	 */
+	public void setCollider(ParallelCollider collider) {
+		this.collider.stop();
+		this.collider = collider;
+	}
+
+	/**
+	 * 获取游戏时间。
+	 *
+	 * @return 游戏时间(毫秒)
+	 */
+	public long getTime() {
+		return time;
+	}
+
+}
@@ -2,12 +2,7 @@
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Random;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.res.AssetManager;
 import android.graphics.Bitmap;
@@ -15,32 +10,33 @@ import android.graphics.BitmapFactory;
 import android.media.AudioManager;
 import android.media.MediaPlayer;
 import android.media.SoundPool;
+import android.util.SparseIntArray;
 
 /**
  * 游戏帮助类。这个类的变量和函数都是静态的，方便其它类使用。主要是用于
  * 音乐效果，图片获取，创建一些游戏元素，碰撞检测和保存屏幕大小。
+ * 游戏逻辑用到的随机数，游戏时间等保存在GameContext中，由调用者传入。
  * 
  * @author Hong
  *
  */
-@SuppressLint("UseSparseArrays")
 public class GameHelper {
 	
+	// 每个逻辑帧中子弹移动的步数，每一步移动一个子弹高度。
+	public final static int BULLET_STEPS = 7;
+	
 	static Context context;
 	static int screenWidth;
 	static int screenHeight;
 	
 	static MediaPlayer mediaPlayer;
 	static SoundPool soundPool;
-	static HashMap<Integer, Integer> soundPoolMap;
+	static SparseIntArray soundPoolMap;
+	static SoundQueue soundQueue;
 	
 	static String[] fileNames;
 	static Bitmap[] images;
 	
-	static List<Enemy> dustEnemys;
-	static Random random;
-	static long time;
-	
 	/**
 	 * 游戏帮助类初始化。保存屏幕大小，初始化音乐，初始化图片。
 	 * 
@@ -59,8 +55,8 @@ public class GameHelper {
 		mediaPlayer.setLooping(true); //循环播放
 		
 		// 初始化游戏音效
-		soundPool = new SoundPool(4, AudioManager.STREAM_MUSIC, 100);
-	    soundPoolMap = new HashMap<Integer, Integer>();
+		soundPool = new SoundPool(SoundQueue.MAX_STREAMS, AudioManager.STREAM_MUSIC, 100);
+	    soundPoolMap = new SparseIntArray();
 	    soundPoolMap.put(R.raw.button, 
 	    		soundPool.load(c, R.raw.button, 1));
 	    soundPoolMap.put(R.raw.enemy1_down, 
@@ -79,6 +75,7 @@ public class GameHelper {
 	    		soundPool.load(c, R.raw.get_double_gun, 1));
 	    soundPoolMap.put(R.raw.use_bomb, 
 	    		soundPool.load(c, R.raw.use_bomb, 1));
+	    soundQueue = new SoundQueue(soundPool, soundPoolMap);
 		
 	    // 初始化图片
 	    fileNames = new String[] {"background.png", "player.png", 
@@ -94,24 +91,16 @@ public class GameHelper {
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		
-		dustEnemys = new LinkedList<Enemy>();
-		random = new Random();
-		time = 0;
 	}
 	
 	/**
-	 * 播放游戏音效
+	 * 播放游戏音效。只是交给音效队列，在这一个逻辑帧结束时才会被音效线程播放，
+	 * 同一帧中重复的音效只播放一次。
 	 * 
 	 * @param id 声音资源ID
 	 */
 	public static void playSound(int id) {
-		Integer ID = soundPoolMap.get(id);
-		if(ID == null)
-			return;
-		
-		int soundId = ID.intValue();
-		soundPool.play(soundId, 1, 1, 0, 0, 1);
+		soundQueue.post(id);
 	}
 	
 	/**
@@ -132,32 +121,39 @@ public class GameHelper {
 	}
 	
 	/**
-	 * 创建一个装备元素。这个元素是随机创建的，可以是一个双枪子弹也可以是一个炸弹
+	 * 创建一个装备实体。这个实体是随机创建的，可以是一个双枪子弹也可以是一个炸弹
 	 * 
-	 * @return 一个装备元素
+	 * @param context 游戏上下文
+	 * @param equips 装备管理器
+	 * @return 装备的实体序号，装备已满时返回-1。
 	 */
-	public static Equipment createEquipment() {
-		int r = random.nextInt(0xFFFF);
+	public static int createEquipment(GameContext context, 
+			EquipmentManager equips) {
+		int r = context.random.nextInt(0xFFFF);
 		int type = r & 0x1;
-		Equipment e = Equipment.createEquipment(type);
-		int x = (r >>> 1) % (screenWidth - e.getWidth());
-		e.setPosition(x, -50);
-		return e;
+		int x = (r >>> 1) % (context.screenWidth - Equipment.getWidth(context));
+		return equips.spawn(type, x, -50);
 	}
 	
 	/**
-	 * 刷新敌人列表。首先是要将不可见的敌人清除出来，再随机的创建敌人。
-	 * 这个敌人的类型，速度和位置都是随机的。最后将这个敌人加入到敌人列表中。
+	 * 刷新敌人列表。首先是要将不可见的敌人清除出来放入回收池，再随机的创建敌人。
+	 * 这个敌人的类型，速度和位置都是随机的，优先从回收池中取出同类型的敌人。
+	 * 最后将这个敌人加入到敌人列表中。
+	 * <P/>
+	 * 压力模式下一定会创建敌人，每次创建多个，不限制每种敌人的数量，
+	 * 只限制总数，速度都是最慢的。
 	 * 
+	 * @param context 游戏上下文
 	 * @param enemys 敌人列表
 	 * @param isNew 是否要创建新的敌人。
 	 */
-	public static void refreshEnemy(List<Enemy> enemys, boolean isNew) {
-		for(Enemy e : enemys) {
-			if(!e.isVisible())
-				dustEnemys.add(e);
-		}
-		enemys.removeAll(dustEnemys);
+	public static void refreshEnemy(GameContext context, EntityList<Enemy> enemys, 
+			boolean isNew) {
+		EnemyPool pool = context.enemyPool;
+		StressMode stress = context.stress;
+		long time = context.time;
+		
+		enemys.removeInvisible(pool);
 		
 		if(!isNew)
 			return;
@@ -171,116 +167,251 @@ public class GameHelper {
 		int maxSpeed1 = (time < 20000)? 1 : (time < 60000)? 2 : 3;
 		int maxSpeed2 = (time < 60000)? 1 : (time < 300000)? 2 : 3;
 		int maxSpeed3 = (time < 240000)? 1 : 2;
+		int spawns = 1;
+		int maxEnemys = Integer.MAX_VALUE;
+		if(stress != null) {
+			newEnemy = 0x100;
+			maxEnemy2 = maxEnemy3 = Integer.MAX_VALUE;
+			maxSpeed1 = maxSpeed2 = maxSpeed3 = 1;
+			spawns = stress.spawnsPerRefresh;
+			maxEnemys = stress.maxEnemys;
+		}
 		
 		int enemy2 = 0, enemy3 = 0;
-		for(Enemy e : enemys) {
-			int t = e.getType();
+		for(int i = 0; i < enemys.size(); i++) {
+			int t = enemys.get(i).getType();
 			if(t == 2) enemy2++;
 			else if(t == 3) enemy3++;
 		}
 
-		int r = random.nextInt(0xFFFFFF);
-		
-		// 判断是否要创建敌人
-		int ne = r & 0xFF;
-		if(ne >= newEnemy)
-			return;
-		
-		// 随机类型
-		int type = (r >>> 8) & 0x3;
-		if(type == 0)
-			type = 1;
-		if((type == 2 && enemy2 >= maxEnemy2) || (type == 3 && enemy3 >= maxEnemy3))
-			type = 1;
-		
-		// 随机速度
-		int speed = (r >>> 10) & 0x3;
-		if(speed == 0 || (type == 1 && speed > maxSpeed1) || 
-				(type == 2 && speed > maxSpeed2) || (type == 3 && speed > maxSpeed3))
-			speed = 1;
-		if(type == 1) speed = 2 + 6 * speed;
-		else if(type == 2) speed = 2 + 4 * speed;
-		else if(type == 3) speed = 1 + 3 * speed;
-		
-		int i;
-		for(i = 0; i < dustEnemys.size(); i++) {
-			if(dustEnemys.get(i).getType() == type)
-				break;
+		for(int n = 0; n < spawns && enemys.size() < maxEnemys; n++) {
+			int r = context.random.nextInt(0xFFFFFF);
+			
+			// 判断是否要创建敌人
+			int ne = r & 0xFF;
+			if(ne >= newEnemy)
+				continue;
+			
+			// 随机类型
+			int type = (r >>> 8) & 0x3;
+			if(type == 0)
+				type = 1;
+			if((type == 2 && enemy2 >= maxEnemy2) || (type == 3 && enemy3 >= maxEnemy3))
+				type = 1;
+			if(type == 2) enemy2++;
+			else if(type == 3) enemy3++;
+			
+			// 随机速度
+			int speed = (r >>> 10) & 0x3;
+			if(speed == 0 || (type == 1 && speed > maxSpeed1) || 
+					(type == 2 && speed > maxSpeed2) || (type == 3 && speed > maxSpeed3))
+				speed = 1;
+			if(type == 1) speed = 2 + 6 * speed;
+			else if(type == 2) speed = 2 + 4 * speed;
+			else if(type == 3) speed = 1 + 3 * speed;
+			
+			Enemy e = pool.obtain(context, type);
+			
+			// 随机位置
+			int x = (r >>> 12) % (context.screenWidth - e.getWidth());
+			int y = -e.getHeight();
+			e.relive(speed, x, y);
+			enemys.add(e);
 		}
-		Enemy e = null;
-		if(i < dustEnemys.size())
-			e = dustEnemys.remove(i);
-		else
-			e = Enemy.createEnemy(type);
-		
-		// 随机位置
-		int x = (r >>> 12) % (screenWidth - e.getWidth());
-		int y = -e.getHeight();
-		e.relive(speed, x, y);
-		enemys.add(e);
 	}
 	
 	/**
 	 * 碰撞检测。检测玩家与敌人的碰撞。
+	 * <P/>
+	 * 存活的敌人按列表序号放入网格，只有与玩家在同一个格子中的敌人才会用
+	 * collidesWith检测，候选按序号排列，所以顺序与遍历整个列表一样。
+	 * <P/>
+	 * 玩家和大飞机的形状都不规则，所以用像素级检测，只有不透明的像素重叠才算
+	 * 撞上。精灵的不透明掩码在创建时就缓存好了，检测时不需要读取图片。
+	 * 没有图片时(无界面运行)只按碰撞矩形检测。
 	 * 
+	 * @param context 游戏上下文
 	 * @param player 玩家
 	 * @param enemys 敌人列表
 	 */
-	public static void collideDetect(Player player, List<Enemy> enemys) {
-		for(Enemy e : enemys) {
-			if(player.isAlive() && e.isAlive() && player.collidesWith(e, false)) {
+	public static void collideDetect(GameContext context, Player player, 
+			EntityList<Enemy> enemys) {
+		if(!player.isAlive())
+			return;
+		
+		SpatialGrid grid = context.grid;
+		grid.clear();
+		for(int i = 0; i < enemys.size(); i++) {
+			Enemy e = enemys.get(i);
+			if(e.isAlive())
+				grid.insert(i, e.getCollisionLeft(), e.getCollisionTop(), 
+						e.getCollisionRight(), e.getCollisionBottom());
+		}
+		
+		int n = grid.query(player.getCollisionLeft(), player.getCollisionTop(), 
+				player.getCollisionRight(), player.getCollisionBottom());
+		for(int i = 0; i < n; i++) {
+			Enemy e = enemys.get(grid.get(i));
+			if(player.isAlive() && e.isAlive() && player.collidesWith(e, true)) {
+				grid.addHits(1);
 				e.hited();
 				player.knocked();
 			}
 		}
 	}
 	
+	/**
+	 * 碰撞检测。检测敌人子弹与玩家的碰撞，玩家被击中就会爆炸。
+	 * <P/>
+	 * 存活的敌人子弹放入网格，只检测与玩家在同一个格子中的子弹。
+	 * 
+	 * @param context 游戏上下文
+	 * @param shots 敌人子弹
+	 * @param player 玩家
+	 * @return 击中玩家的子弹数。
+	 */
+	public static int collideDetect(GameContext context, EnemyBulletStore shots, 
+			Player player) {
+		if(!player.isAlive() || !player.isVisible())
+			return 0;
+		
+		SpatialGrid grid = context.grid;
+		final int w = shots.getWidth();
+		final int h = shots.getHeight();
+		grid.clear();
+		for(int i = 0; i < shots.getCount(); i++) {
+			if(shots.isAlive(i)) {
+				int x = shots.getX(i);
+				int y = shots.getY(i);
+				grid.insert(i, x, y, x + w, y + h);
+			}
+		}
+		
+		int left = player.getCollisionLeft();
+		int top = player.getCollisionTop();
+		int right = player.getCollisionRight();
+		int bottom = player.getCollisionBottom();
+		int hits = 0;
+		int n = grid.query(left, top, right, bottom);
+		for(int i = 0; i < n; i++) {
+			int s = grid.get(i);
+			int x = shots.getX(s);
+			int y = shots.getY(s);
+			if(x >= right || y >= bottom || x + w <= left || y + h <= top)
+				continue;
+			shots.release(s);
+			hits++;
+		}
+		grid.addHits(hits);
+		if(hits > 0)
+			player.knocked();
+		return hits;
+	}
+	
 	/**
 	 * 碰撞检测。检测子弹与敌人的碰撞。由于子弹移动速度太快，子弹的移动会在这里完成。
-	 * 子弹移动步伐太大，为了使子弹前方的敌人能有效的检测到碰撞，只能移动一小步就
-	 * 检测一下。要不然子弹前后移动之间的空白是检测不到的。
+	 * 子弹每个逻辑帧移动BULLET_STEPS个子弹高度，不能只检测终点，要不然子弹前后
+	 * 之间的敌人是检测不到的。
+	 * <P/>
+	 * 子弹和敌人都只在竖直方向移动，X区间是不变的，所以粗筛用按X区间排序的
+	 * SweepAndPrune，只在敌人出现和消失时调整，比每帧重建网格更省。敌人在检测时
+	 * 也不会移动，每颗子弹这一帧扫过的范围是一个竖条，用它查询，对每个候选
+	 * 敌人直接算出子弹在第几步第一次碰到它。这与原来每移动一步
+	 * 检测一次是一样的，只是不用真的移动BULLET_STEPS次。
+	 * <P/>
+	 * 原来是按步数，子弹的发射顺序，敌人的列表顺序检测的，先碰到的子弹先击中。
+	 * 这里把碰撞按同样的顺序排好再依次处理，已死亡的子弹和敌人跳过，
+	 * 所以击中的顺序和分数与原来一样。子弹很多时由ParallelCollider分段并行地
+	 * 找出碰撞，合并后的顺序不变，结果与串行一样。
 	 * 
-	 * @param bullets 子弹列表
+	 * @param context 游戏上下文
+	 * @param bullets 子弹
 	 * @param enemys 敌人列表
 	 * @return 敌人死亡的分数。
 	 */
-	public static int collideDetect(List<Bullet> bullets, List<Enemy> enemys) {
+	public static int collideDetect(GameContext context, BulletStore bullets, 
+			EntityList<Enemy> enemys) {
+		SweepAndPrune sweep = context.sweep;
+		sweep.sync(enemys);
+		
+		CollisionEvents events = context.events;
+		events.clear();
+		context.collider.collect(sweep, bullets, enemys, events);
+		
 		int score = 0;
-		for(int i = 0; i < 7; i++) {
-			for(Bullet b : bullets) {
-				b.move();
-				for(Enemy e : enemys) {
-					if(b.isVisible() && e.isAlive() && e.collidesWith(b, false)) {
-						e.hited();
-						b.setVisible(false);
-						if(!e.isAlive()) {
-							score += e.getScore();
-						}
-					}
-				}
-			}
+		events.sort();
+		for(int k = 0; k < events.size(); k++) {
+			int i = events.getBullet(k);
+			Enemy e = enemys.get(events.getTarget(k));
+			if(!bullets.isAlive(i) || !e.isAlive())
+				continue;
+			bullets.release(i);
+			sweep.addHits(1);
+			e.hited();
+			if(!e.isAlive())
+				score += e.getScore();
 		}
+		bullets.move(BULLET_STEPS);
 		return score;
 	}
 	
 	/**
-	 * 碰撞检测。检测玩家与装备的碰撞
+	 * 找出一段子弹会击中的敌人。对每颗存活的子弹，用它这一帧扫过的竖条查询
+	 * sweep，算出它在第几步第一次碰到每个候选敌人，按子弹序号的顺序放入events。
+	 * 只读取子弹，敌人和sweep，可以由多个线程对不同的段同时调用。
 	 * 
-	 * @param player 玩家
-	 * @param equip 装备
+	 * @param sweep 敌人的X区间排序，已与敌人列表同步。
+	 * @param buffer 查询结果的数组，长度不能小于sweep.size()。
+	 * @param bullets 子弹
+	 * @param enemys 敌人列表
+	 * @param from 第一颗子弹的序号
+	 * @param to 最后一颗子弹的序号加一
+	 * @param events 事件
+	 * @return 查询的候选数
 	 */
-	public static void collideDetect(Player player, Equipment equip) {
-		if(!player.isAlive() || equip == null || !equip.isVisible())
-			return;
-		
-		if(player.collidesWith(equip, false)){
-			int type = equip.getType();
-			// 根据装备的类型对玩家做不同的动作。
-			if(type == Equipment.TYPE_DOUBLE)
-				player.doubleGun();
-			else if(type == Equipment.TYPE_BOMB)
-				player.addBomb();
-			equip.setVisible(false);
+	static int collectHits(SweepAndPrune sweep, int[] buffer, 
+			BulletStore bullets, EntityList<Enemy> enemys, int from, int to, 
+			CollisionEvents events) {
+		final int w = bullets.getWidth();
+		final int h = bullets.getHeight();
+		int pairs = 0;
+		for(int i = from; i < to; i++) {
+			if(!bullets.isAlive(i))
+				continue;
+			int x = bullets.getX(i);
+			int y = bullets.getY(i);
+			// 第s步后子弹在y - s * h，移出屏幕(小于-h)后就不再检测。
+			int last = Math.min(BULLET_STEPS, floorDiv(y + h, h));
+			if(last < 1)
+				continue;
+			int n = sweep.query(x, y - last * h, x + w, y, buffer);
+			pairs += n;
+			for(int k = 0; k < n; k++) {
+				int j = buffer[k];
+				Enemy e = enemys.get(j);
+				// 第s步碰到：y - s * h < bottom 并且 y - s * h + h > top
+				int first = Math.max(1, 
+						floorDiv(y - e.getCollisionBottom(), h) + 1);
+				int end = Math.min(last, 
+						floorDiv(y + h - e.getCollisionTop() - 1, h));
+				if(first <= end)
+					events.add(first, i, j);
+			}
 		}
+		return pairs;
+	}
+	
+	/**
+	 * 向下取整的整数除法。
+	 * 
+	 * @param a 被除数
+	 * @param b 除数
+	 * @return 不大于a / b的最大整数
+	 */
+	private static int floorDiv(int a, int b) {
+		int q = a / b;
+		if(a % b != 0 && (a ^ b) < 0)
+			q--;
+		return q;
 	}
 }
@@ -0,0 +1,222 @@
+package com.CES.example.game;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 游戏循环线程。一个GameLoop只使用一个线程，可以反复暂停与恢复，
+ * 直到被停止。
+ * <P/>
+ * surface每次被创建都新建线程的话，销毁时如果旧线程还没有退出，新旧两个线程
+ * 就会同时使用同一个SurfaceHolder。GameLoop在pause()和stop()中会等待循环
+ * 真正停下来才返回，所以surfaceDestroyed返回之后就不会再有线程访问surface。
+ * <P/>
+ * 运行状态保存在AtomicInteger中，状态的转换都是原子的：
+ * <pre>
+ * NEW --start()--> RUNNING --pause()--> PAUSED --resume()--> RUNNING
+ *                  任何状态 --stop()--> STOPPED
+ * </pre>
+ *
+ * @author Hong
+ *
+ */
+public class GameLoop implements Runnable {
+
+	public final static int STATE_NEW		= 0;
+	public final static int STATE_RUNNING	= 1;
+	public final static int STATE_PAUSED	= 2;
+	public final static int STATE_STOPPED	= 3;
+
+	private final String name;
+	private final Task task;
+	private final AtomicInteger state = new AtomicInteger(STATE_NEW);
+	private final Object lock = new Object();
+	// 循环线程是否正在执行任务，由lock保护。
+	private boolean isActive = false;
+	private Thread thread;
+
+	/**
+	 * 构造函数。线程在start()时才会创建。
+	 *
+	 * @param name 线程名
+	 * @param task 循环执行的任务
+	 */
+	public GameLoop(String name, Task task) {
+		if(task == null)
+			throw new NullPointerException();
+		this.name = name;
+		this.task = task;
+	}
+
+	/**
+	 * 创建线程并开始循环。只有在NEW状态下有效。
+	 *
+	 * @return 成功开始返回true。
+	 */
+	public boolean start() {
+		if(!state.compareAndSet(STATE_NEW, STATE_RUNNING))
+			return false;
+		synchronized(lock) {
+			isActive = true;
+			thread = new Thread(this, name);
+			thread.start();
+		}
+		return true;
+	}
+
+	/**
+	 * 暂停循环，等到任务的onPause()执行完之后才返回。只有在RUNNING状态下有效。
+	 * 循环线程会被中断，以便从sleep或wait中尽快返回。
+	 *
+	 * @return 成功暂停返回true。
+	 */
+	public boolean pause() {
+		if(!state.compareAndSet(STATE_RUNNING, STATE_PAUSED))
+			return false;
+		awaitInactive();
+		return true;
+	}
+
+	/**
+	 * 从暂停中恢复循环。只有在PAUSED状态下有效。
+	 *
+	 * @return 成功恢复返回true。
+	 */
+	public boolean resume() {
+		if(!state.compareAndSet(STATE_PAUSED, STATE_RUNNING))
+			return false;
+		synchronized(lock) {
+			lock.notifyAll();
+		}
+		return true;
+	}
+
+	/**
+	 * 停止循环并等待线程结束。停止之后不能再开始。
+	 */
+	public void stop() {
+		int s = state.getAndSet(STATE_STOPPED);
+		if(s == STATE_STOPPED || s == STATE_NEW)
+			return;
+
+		Thread t;
+		synchronized(lock) {
+			t = thread;
+			lock.notifyAll();
+		}
+		awaitInactive();
+		if(t == Thread.currentThread())
+			return;
+		boolean interrupted = false;
+		while(t.isAlive()) {
+			try {
+				t.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if(interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * 获取运行状态。
+	 *
+	 * @return STATE_NEW，STATE_RUNNING，STATE_PAUSED或STATE_STOPPED。
+	 */
+	public int getState() {
+		return state.get();
+	}
+
+	/**
+	 * 循环是否处于RUNNING状态。任务中长时间的等待应以此作为条件。
+	 *
+	 * @return RUNNING状态返回true。
+	 */
+	public boolean isRunning() {
+		return state.get() == STATE_RUNNING;
+	}
+
+	/**
+	 * 中断循环线程并等待任务停下来。在循环线程中调用时不等待。
+	 * 只有正在执行任务的线程会被中断，所以恢复之后不会残留中断状态。
+	 */
+	private void awaitInactive() {
+		synchronized(lock) {
+			if(!isActive || thread == Thread.currentThread())
+				return;
+			thread.interrupt();
+			boolean interrupted = false;
+			while(isActive) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if(interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * 循环线程主体。任务抛出异常时会先调用onPause()，再从onResume()重新开始。
+	 */
+	@Override
+	public void run() {
+		while(true) {
+			try {
+				task.onResume();
+				while(state.get() == STATE_RUNNING)
+					task.onFrame();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+			try {
+				task.onPause();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+
+			synchronized(lock) {
+				// 清除pause()或stop()留下的中断，然后等待恢复。
+				Thread.interrupted();
+				isActive = false;
+				lock.notifyAll();
+				while(state.get() == STATE_PAUSED) {
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						// 等待中不会被中断，忽略。
+					}
+				}
+				if(state.get() == STATE_STOPPED)
+					return;
+				isActive = true;
+			}
+		}
+	}
+
+	/**
+	 * 循环执行的任务。所有方法都在循环线程中调用。
+	 *
+	 * @author Hong
+	 *
+	 */
+	public interface Task {
+		/**
+		 * 开始或恢复循环时调用。
+		 */
+		void onResume();
+
+		/**
+		 * 执行一帧。可以在这里等待到下一帧的时间，但要能响应中断。
+		 */
+		void onFrame();
+
+		/**
+		 * 暂停或停止循环时调用。
+		 */
+		void onPause();
+	}
+
+}
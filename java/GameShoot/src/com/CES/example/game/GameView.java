@@ -1,7 +1,6 @@
 package com.CES.example.game;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.io.IOException;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
@@ -12,6 +11,7 @@ import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
+import android.view.WindowManager;
 
 /**
  * 游戏视图类。继承于SurfaceView。
@@ -55,7 +55,7 @@ import android.view.SurfaceView;
  */
 @SuppressLint("ViewConstructor")
 public class GameView extends SurfaceView implements SurfaceHolder.Callback, 
-		Runnable, Button.OnClickListener {
+		Button.OnClickListener, InputQueue.Listener {
 	
 	// 游戏状态
 	private final static int STATE_IDLE		= 0;
@@ -74,15 +74,21 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 	private final static int BN_SURE		= 8;
 	private final static int BN_CANCEL		= 9;
 	
-	// 帧刷新时间
-	private final static int FRAME_TIME		= 50;
+	// 逻辑帧时间。游戏逻辑总是以这个固定的步长推进，与绘制的帧率无关。
+	private final static int FRAME_TIME		= GameWorld.FRAME_TIME;
+	// 每次绘制前最多追赶的逻辑帧数，防止绘制太慢时逻辑帧越积越多。
+	private final static int MAX_TICKS		= 5;
+	// 过载时默认最多连续跳过的绘制帧数。
+	private final static int MAX_FRAME_SKIPS	= 4;
+	
+	// 输入队列中除触摸动作外的事件
+	private final static int INPUT_BACK		= -1;
+	private final static int INPUT_PAUSE	= -2;
+	// 输入队列的容量，一个逻辑帧内的触摸采样不会超过这么多。
+	private final static int INPUT_CAPACITY	= 256;
 	
 	private BackGround backGround;
-	private Player player;
-	private Equipment equip;
-	private List<Enemy> enemys;
-	private List<Bullet> bullets;
-	private int score;
+	private GameWorld world;
 	
 	private Button bnStart;
 	private Button bnBack;
@@ -97,12 +103,35 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 	private SurfaceHolder holder;
 	private Handler handler;
 	private int state = STATE_IDLE;
-	private boolean isRunning = false;
+	
+	// 逻辑线程与绘图线程。surface销毁时暂停，重新创建时恢复，线程是重用的。
+	private GameLoop logicLoop;
+	private GameLoop renderLoop;
+	
+	private FramePacer pacer;
+	private SnapshotBuffer snapshots;
+	private FrameProfiler profiler;
+	private volatile boolean showProfiler = false;
+	// 关闭帧性能分析时请求绘图线程把统计写入文件
+	private volatile boolean dumpRequested = false;
+	private final String profileFile;
+	
+	// 过载模式。逻辑线程落后或上一帧超出帧预算时跳过绘制，把CPU让给逻辑线程。
+	private volatile int maxFrameSkips = MAX_FRAME_SKIPS;
+	private volatile boolean isBehind = false;
+	private int skippedFrames = 0;
+	
+	// 非游戏状态下绘图线程在renderLock上等待重绘请求。
+	private final Object renderLock = new Object();
+	private boolean renderRequested = false;
 	
 	private Paint paint;
+	// 绘制得分与炸弹数量用的文字，只在绘图线程中使用。
+	private final char[] textBuffer = new char[16];
+	// 触摸事件由UI线程写入，逻辑线程读取。touchX与touchY只在逻辑线程中使用。
+	private InputQueue input;
 	private int touchX = -1;
 	private int touchY = -1;
-	private int frameCount = 0;
 
 	/**
 	 * 构造函数。在这里会进行游戏的初始化。
@@ -120,9 +149,7 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 		
 		// 初始化各元素
 		backGround = new BackGround(5);
-		player = Player.createPlayer();
-		enemys = new LinkedList<Enemy>();
-		bullets = new LinkedList<Bullet>(); 
+		world = new GameWorld(new AndroidGameContext());
 		
 		// 初始化按键
 		bnStart = new Button(BN_START, "开始游戏", screenWidth / 2, 40);
@@ -153,10 +180,25 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 		bnResume.setOnClickListener(this);
 		bnPause.setOnClickListener(this);
 		bnBomb.setOnClickListener(this);
+		// 暂停与炸弹按键的位置之后不再改变，绘图线程可以直接使用。
+		bnPause.setPosition(0, 0);
+		bnBomb.setPosition(0, GameHelper.screenHeight - bnBomb.getHeight());
 		
 		paint = new Paint();
 		paint.setTextSize(32.0f);
 		
+		// 按屏幕的刷新率绘制
+		WindowManager wm = (WindowManager) context.getSystemService(
+				Context.WINDOW_SERVICE);
+		pacer = new FramePacer(wm.getDefaultDisplay().getRefreshRate());
+		snapshots = new SnapshotBuffer();
+		profiler = new FrameProfiler();
+		world.setProfiler(profiler);
+		profileFile = context.getFilesDir() + "/profile.csv";
+		input = new InputQueue(INPUT_CAPACITY);
+		logicLoop = new GameLoop("GameLogic", new LogicTask());
+		renderLoop = new GameLoop("GameRender", new RenderTask());
+		
 		getHolder().addCallback(this);
 		gameIdle();
 	}
@@ -168,86 +210,244 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 	}
 
 	/**
-	 * 创建surface，在这里启动绘图线程。
+	 * 创建surface，在这里启动或恢复音效线程，逻辑线程和绘图线程。
 	 */
 	@Override
 	public void surfaceCreated(SurfaceHolder holder) {
 		this.holder = holder;
-		(new Thread(this)).start();
+		if(!GameHelper.soundQueue.start())
+			GameHelper.soundQueue.resume();
+		if(!logicLoop.start())
+			logicLoop.resume();
+		if(!renderLoop.start())
+			renderLoop.resume();
 	}
 
 	/**
-	 * 销毁surface，在这里关闭绘图线程。
+	 * 销毁surface，在这里暂停绘图线程，逻辑线程和音效线程。返回时绘图线程已经停下，
+	 * 不会再访问surface。
 	 */
 	@Override
 	public void surfaceDestroyed(SurfaceHolder holder) {
-		isRunning = false;
+		renderLoop.pause();
+		logicLoop.pause();
+		GameHelper.soundQueue.pause();
 	}
 
 	/**
-	 * 绘图线程主体
+	 * 逻辑线程的任务。游戏逻辑以固定的FRAME_TIME为步长推进，每个逻辑帧结束后
+	 * 把游戏内容发布为快照交给绘图线程。绘制再慢也不会拖慢游戏逻辑。
+	 * 落后超过MAX_TICKS个逻辑帧时不再追赶。
 	 */
-	@Override
-	public void run() {
-		System.out.println("Game start.");
-		isRunning = true;
+	private class LogicTask implements GameLoop.Task {
 		
-		try {
-			while(isRunning) {
-				long t1 = System.currentTimeMillis();
-				Canvas canvas = holder.lockCanvas();
-				
+		private final long tickTime = FRAME_TIME * 1000000L;
+		private long nextTime;
+		
+		@Override
+		public void onResume() {
+			nextTime = System.nanoTime();
+		}
+		
+		@Override
+		public void onFrame() {
+			boolean changed = false;
+			try {
+				changed = onUpdate();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+			// 这一帧的音效交给音效线程
+			GameHelper.soundQueue.flush();
+			publishSnapshot(nextTime);
+			if(changed)
+				requestRender();
+			
+			nextTime += tickTime;
+			long wait = nextTime - System.nanoTime();
+			if(wait > 0) {
+				try {
+					Thread.sleep(wait / 1000000L, (int) (wait % 1000000L));
+				} catch (InterruptedException e) {
+					// 循环被暂停或停止。
+					return;
+				}
+			}
+			else if(-wait > tickTime * MAX_TICKS)
+				nextTime = System.nanoTime();
+			isBehind = -wait >= tickTime;
+		}
+		
+		@Override
+		public void onPause() {
+			isBehind = false;
+		}
+	}
+
+	/**
+	 * 绘图线程的任务。按FramePacer控制的屏幕垂直同步节奏绘制最新的快照。
+	 * 快照之后流逝的时间用于插值，使绘制帧率高于逻辑帧率时画面依然平滑。
+	 * <P/>
+	 * 过载时(逻辑线程落后于计划，或上一帧的耗时超出一个刷新周期)跳过这一帧的
+	 * 绘制，但最多连续跳过maxFrameSkips帧，保证画面不会完全停住。
+	 * 逻辑线程不受影响，游戏速度保持不变。
+	 * <P/>
+	 * 非游戏状态下画面只在逻辑帧处理了输入或推进了按键与对话框的动态效果时变化，
+	 * 所以绘图线程画完一帧后就不再绘制，而是等待逻辑线程发来的重绘请求。
+	 */
+	private class RenderTask implements GameLoop.Task {
+		
+		private final long tickTime = FRAME_TIME * 1000000L;
+		private long frameCost;
+		private int skips;
+		
+		@Override
+		public void onResume() {
+			System.out.println("Game start.");
+			frameCost = 0;
+			skips = 0;
+			skippedFrames = 0;
+			pacer.start();
+		}
+		
+		@Override
+		public void onFrame() {
+			final long budget = pacer.getPeriod();
+			long now = pacer.awaitNextFrame();
+			if(!renderLoop.isRunning())
+				return;
+			updateCounters();
+			if(dumpRequested) {
+				dumpRequested = false;
+				dumpProfile();
+			}
+			if((isBehind || frameCost > budget) && skips < maxFrameSkips) {
+				skips++;
+				skippedFrames++;
+				frameCost = 0;
+				return;
+			}
+			skips = 0;
+			synchronized(renderLock) {
+				renderRequested = false;
+			}
+			
+			WorldSnapshot snapshot = snapshots.acquire();
+			float alpha = (float) (now - snapshot.time) / tickTime;
+			if(alpha < 0)
+				alpha = 0;
+			else if(alpha > 1)
+				alpha = 1;
+			
+			Canvas canvas = holder.lockCanvas();
+			if(canvas != null) {
 				try {
 					// 绘制游戏内容。
-					onPaint(canvas);	
+					onPaint(canvas, snapshot, alpha);
+					if(showProfiler)
+						profiler.paint(canvas);
 				} catch (Exception e) {
 					e.printStackTrace();
 				}
-				
+				long t = System.nanoTime();
 				holder.unlockCanvasAndPost(canvas);
-				long t2 = System.currentTimeMillis();
-				if(t2 - t1 < FRAME_TIME) {
-					try {
-						Thread.sleep(FRAME_TIME - (t2 - t1));
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-					}
-				}
-				frameCount++;
+				profiler.record(FrameProfiler.POST_CANVAS, t);
+				frameCost = profiler.record(FrameProfiler.FRAME, now) - now;
+			}
+			
+			if(snapshot.state != STATE_PLAY) {
+				pacer.pause();
+				awaitRenderRequest();
+				pacer.resume();
+				frameCost = 0;
 			}
-		} catch (Exception e) {
-			e.printStackTrace();
 		}
-
-		isRunning = false;
-		System.out.println("Game finish.");
+		
+		@Override
+		public void onPause() {
+			pacer.stop();
+			updateCounters();
+			System.out.println("Game finish.");
+		}
+		
+		/**
+		 * 把帧间隔的抖动和丢弃、跳过的帧数交给帧性能分析器显示。
+		 */
+		private void updateCounters() {
+			profiler.setCounter(FrameProfiler.JITTER_AVERAGE,
+					pacer.getAverageJitter() / 1000);
+			profiler.setCounter(FrameProfiler.JITTER_MAX,
+					pacer.getMaxJitter() / 1000);
+			profiler.setCounter(FrameProfiler.DROPPED_FRAMES,
+					pacer.getDroppedFrames());
+			profiler.setCounter(FrameProfiler.SKIPPED_FRAMES, skippedFrames);
+		}
 	}
 
 	/**
-	 * 键盘事件响应处。这里只响应返回按键。
+	 * 请求绘图线程重绘。绘图线程正在等待时会被唤醒。
+	 */
+	public void requestRender() {
+		synchronized(renderLock) {
+			renderRequested = true;
+			renderLock.notifyAll();
+		}
+	}
+	
+	/**
+	 * 等待重绘请求，只能由绘图线程调用。绘图线程被暂停或停止时也会返回。
+	 */
+	private void awaitRenderRequest() {
+		synchronized(renderLock) {
+			while(!renderRequested && renderLoop.isRunning()) {
+				try {
+					renderLock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * 键盘事件响应处。这里只响应返回按键与菜单按键，菜单按键用于开关帧性能分析。
+	 * 返回按键会改变游戏状态，所以放入输入队列交给逻辑线程处理。
 	 */
 	@Override
 	public boolean onKeyDown(int keyCode, KeyEvent event) {
+		if(keyCode == KeyEvent.KEYCODE_MENU) {
+			toggleProfiler();
+			return true;
+		}
 		if(keyCode == KeyEvent.KEYCODE_BACK) {
-			if(state == STATE_IDLE)
-				onClick(BN_BACK);
-			else if(state == STATE_PLAY)
-				onClick(BN_PAUSE);
-			else if(state == STATE_PAUSE) {
-				if(dlgRestart.isVisible())
-					onClick(BN_CANCEL);
-				else
-					onClick(BN_BACK);
-			}
-			else if(state == STATE_OVER)
-				onClick(BN_CANCEL);
+			input.offer(INPUT_BACK, 0, 0);
 			return true;
 		}
 		return super.onKeyDown(keyCode, event);
 	}
 
 	/**
-	 * 触摸事件响应处。不同的游戏状态会分配给不同的元素响应。
+	 * 返回按键响应处，在逻辑线程中调用。
+	 */
+	private void onBack() {
+		if(state == STATE_IDLE)
+			onClick(BN_BACK);
+		else if(state == STATE_PLAY)
+			onClick(BN_PAUSE);
+		else if(state == STATE_PAUSE) {
+			if(dlgRestart.isVisible())
+				onClick(BN_CANCEL);
+			else
+				onClick(BN_BACK);
+		}
+		else if(state == STATE_OVER)
+			onClick(BN_CANCEL);
+	}
+
+	/**
+	 * 触摸事件响应处，在UI线程中调用。这里只把触摸事件放入输入队列，
+	 * 移动事件中批量的历史采样也会逐个放入，由逻辑线程在下一个逻辑帧开始时处理。
 	 */
 	@Override
 	public boolean onTouchEvent(MotionEvent event) {
@@ -257,8 +457,30 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 			return super.onTouchEvent(event);
 		
 		int act = event.getActionMasked();
-		int x = (int) event.getX(index);
-		int y = (int) event.getY(index);
+		if(act == MotionEvent.ACTION_MOVE) {
+			int history = event.getHistorySize();
+			for(int i = 0; i < history; i++) {
+				input.offer(act, (int) event.getHistoricalX(index, i), 
+						(int) event.getHistoricalY(index, i));
+			}
+		}
+		input.offer(act, (int) event.getX(index), (int) event.getY(index));
+		return true;
+	}
+	
+	/**
+	 * 输入事件响应处，在逻辑线程中调用。不同的游戏状态会分配给不同的元素响应。
+	 */
+	@Override
+	public void onInput(int act, int x, int y) {
+		if(act == INPUT_BACK) {
+			onBack();
+			return;
+		}
+		if(act == INPUT_PAUSE) {
+			gamePause();
+			return;
+		}
 		
 		if(state == STATE_IDLE) {
 			bnStart.onTouch(act, x, y);
@@ -276,11 +498,11 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 				touchY = y;
 			}
 			else if(act == MotionEvent.ACTION_MOVE) {
-				int dx = x - touchX;
-				int dy = y - touchY;
+				if(touchX >= 0) {
+					world.getPlayer().move(x - touchX, y - touchY);
+				}
 				touchX = x;
 				touchY = y;
-				player.move(dx, dy);
 			}
 			else {
 				touchX = -1;
@@ -297,10 +519,6 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 		else if(state == STATE_OVER) {
 			dlgOvre.onTouch(act, x, y);
 		}
-		else {
-			return super.onTouchEvent(event);
-		}
-		return true;
 	}
 	
 	/**
@@ -333,7 +551,7 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 			break;
 		case BN_BOMB:	// 使用炸弹按键
 			if(state == STATE_PLAY) {
-				score += useBomb();
+				world.useBomb();
 			}
 			break;
 		case BN_FINISH:	// 对话框退出按键
@@ -355,94 +573,173 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 	}
 	
 	/**
-	 * 暂停游戏
+	 * 暂停游戏。在UI线程中调用，所以放入输入队列交给逻辑线程处理。
 	 */
 	public void onPause() {
-		gamePause();
+		input.offer(INPUT_PAUSE, 0, 0);
+	}
+	
+	/**
+	 * 结束游戏，停止绘图线程，逻辑线程，音效线程和碰撞检测的工作线程，
+	 * 并等待它们退出。
+	 * 之后才可以释放SoundPool。
+	 */
+	public void onDestroy() {
+		renderLoop.stop();
+		logicLoop.stop();
+		GameHelper.soundQueue.stop();
+		world.getContext().getCollider().stop();
+	}
+	
+	/**
+	 * 设置压力模式，为null时恢复正常游戏。在下一局开始时生效。
+	 * 
+	 * @param stress 压力模式
+	 */
+	public void setStressMode(StressMode stress) {
+		world.setStressMode(stress);
+	}
+	
+	/**
+	 * 开关帧性能分析的显示。关闭时请求绘图线程把统计写入应用目录下的profile.csv。
+	 */
+	public void toggleProfiler() {
+		showProfiler = !showProfiler;
+		if(!showProfiler)
+			dumpRequested = true;
+		requestRender();
+	}
+	
+	/**
+	 * 把帧性能分析的统计写入文件，只能由绘图线程调用。绘制的阶段由绘图线程
+	 * 自己记录，不会在写出时变化。
+	 */
+	private void dumpProfile() {
+		try {
+			profiler.dump(profileFile);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * 设置过载时最多连续跳过的绘制帧数。0表示从不跳过。
+	 * 
+	 * @param maxFrameSkips 最多连续跳过的帧数
+	 */
+	public void setMaxFrameSkips(int maxFrameSkips) {
+		this.maxFrameSkips = (maxFrameSkips > 0)? maxFrameSkips : 0;
+	}
+	
+	/**
+	 * 逻辑帧。先处理输入队列中的事件，然后只在游戏状态下推进游戏世界与背景，
+	 * 最后推进按键与对话框的动态效果。
+	 * 
+	 * @return 处理了输入事件或动态效果有变化返回true，画面可能因此变化。
+	 */
+	private boolean onUpdate() {
+		boolean changed = input.drain(this) > 0;
+		if(state == STATE_PLAY) {
+			if(world.isOver()) {
+				gameOver();
+				changed = true;
+			}
+			else {
+				world.tick();
+				backGround.scroll();
+				// 炸弹按键只在有炸弹时显示
+				bnBomb.setVisible(world.getPlayer().getBombCount() > 0);
+			}
+		}
+		return updateWidgets() || changed;
+	}
+	
+	/**
+	 * 推进按键与对话框的动态效果一帧。
+	 * 
+	 * @return 有任何一个动态效果的帧有变化返回true。
+	 */
+	private boolean updateWidgets() {
+		boolean changed = bnStart.update();
+		changed |= bnBack.update();
+		changed |= bnResume.update();
+		changed |= bnRestart.update();
+		changed |= dlgFinish.update();
+		changed |= dlgRestart.update();
+		changed |= dlgOvre.update();
+		return changed;
+	}
+
+	/**
+	 * 把当前的游戏内容，按键与对话框的状态写入后台快照并发布。
+	 * 
+	 * @param time 这个逻辑帧的时间(纳秒)
+	 */
+	private void publishSnapshot(long time) {
+		WorldSnapshot snapshot = snapshots.getBack();
+		snapshot.clear();
+		snapshot.time = time;
+		snapshot.state = state;
+		snapshot.score = world.getScore();
+		snapshot.bombCount = world.getPlayer().getBombCount();
+		snapshot.background = backGround.getPosition();
+		
+		if(state == STATE_PAUSE || state == STATE_PLAY)
+			world.snapshot(snapshot);
+		
+		// 按键与对话框按绘制的顺序加入
+		if(state == STATE_PLAY)
+			bnPause.snapshot(snapshot);
+		if(state == STATE_PAUSE || state == STATE_PLAY)
+			bnBomb.snapshot(snapshot);
+		bnStart.snapshot(snapshot);
+		bnBack.snapshot(snapshot);
+		bnResume.snapshot(snapshot);
+		bnRestart.snapshot(snapshot);
+		dlgFinish.snapshot(snapshot);
+		dlgRestart.snapshot(snapshot);
+		dlgOvre.snapshot(snapshot);
+		snapshots.publish();
 	}
 
 	/**
 	 * 绘制游戏内容。
 	 * 
 	 * @param canvas 画布
+	 * @param snapshot 游戏内容的快照
+	 * @param alpha 快照之后已过去的时间占FRAME_TIME的比例，取值[0, 1]。
 	 */
-	private void onPaint(Canvas canvas) {
-		backGround.paint(canvas);
+	private void onPaint(Canvas canvas, WorldSnapshot snapshot, float alpha) {
+		// 非游戏状态下元素都是静止的，不需要插值。
+		int state = snapshot.state;
+		if(state != STATE_PLAY)
+			alpha = 0;
+		
+		long t = System.nanoTime();
+		backGround.paint(canvas, snapshot.background 
+				+ (int) (backGround.getSpeed() * alpha));
+		t = profiler.record(FrameProfiler.PAINT_BACKGROUND, t);
 		
 		// 当暂停或游戏时我们都要绘制玩家，敌人，子弹等游戏的内容。
 		if(state == STATE_PAUSE || state == STATE_PLAY) {
-			// 绘制玩家
-			player.paint(canvas);
-			// 绘制敌人
-			for(Enemy e : enemys)
-				e.paint(canvas);
-			// 绘制子弹
-			for(Bullet b : bullets)
-				b.paint(canvas);
-			// 绘制装备
-			if(equip != null)
-				equip.paint(canvas);
+			snapshot.paint(canvas, alpha);
+			profiler.record(FrameProfiler.PAINT_SPRITES, t);
 			
-			// 如果是游戏状态我们还要对各个元素进行移动和碰撞检测等。
-			if(state == STATE_PLAY) {
-				if(!player.isVisible())
-					gameOver();
-				
-				bnPause.paint(canvas);
-				
-				// 碰撞检测
-				score += GameHelper.collideDetect(bullets, enemys);
-				GameHelper.collideDetect(player, equip);
-				GameHelper.collideDetect(player, enemys);
-				// 刷新敌人
-				if(frameCount % 2 == 0)
-					GameHelper.refreshEnemy(enemys, true);
-				GameHelper.time += FRAME_TIME;
-				
-				// 换帧与行动
-				backGround.scroll();
-				if(frameCount % 2 == 0) player.nextFrame();
-				for(Enemy e : enemys) {
-					e.move();
-					if(frameCount % 2 == 0) e.nextFrame();
-				}
-				if(equip != null && equip.isVisible())
-					equip.move();
-
-				// 玩家开火
-				Bullet.clearBullets(bullets);
-				if(frameCount % 2 == 0) player.fire(bullets);
-				
-				// 每30秒就创建一个装备
-				if(GameHelper.time % (10000 * 3) == 0)
-					equip = GameHelper.createEquipment();
-			}
-			
-			// 绘制得分与炸弹数量
-			canvas.drawText(Integer.toString(score), bnPause.getWidth() + 10, 
-					40, paint);
-			int bombCount = player.getBombCount();
+			// 绘制得分与炸弹数量，文字写在textBuffer中，不创建字符串。
+			int n = FrameProfiler.appendNumber(textBuffer, 0, snapshot.score);
+			canvas.drawText(textBuffer, 0, n, bnPause.getWidth() + 10, 40, paint);
+			int bombCount = snapshot.bombCount;
 			if(bombCount > 0) {
-				bnBomb.setVisible(true);
-				bnBomb.paint(canvas);
-				canvas.drawText("X " + bombCount, bnBomb.getWidth() + 10, 
+				textBuffer[0] = 'X';
+				textBuffer[1] = ' ';
+				n = FrameProfiler.appendNumber(textBuffer, 2, bombCount);
+				canvas.drawText(textBuffer, 0, n, bnBomb.getWidth() + 10, 
 						bnBomb.getY() + 45, paint);
 			}
-			else
-				bnBomb.setVisible(false);
 		}
 
-		// 绘制按键
-		bnStart.paint(canvas);
-		bnBack.paint(canvas);
-		bnResume.paint(canvas);
-		bnRestart.paint(canvas);
-		bnBack.paint(canvas);
-		
-		// 绘制对话框
-		dlgFinish.paint(canvas);
-		dlgRestart.paint(canvas);
-		dlgOvre.paint(canvas);
+		// 绘制按键与对话框
+		snapshot.paintWidgets(canvas);
 	}
 	
 	/**
@@ -451,7 +748,7 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 	private void gameIdle() {
 		state = STATE_IDLE;
 		
-		player.setVisible(false);
+		world.getPlayer().setVisible(false);
 		
 		bnStart.setVisible(true);
 		bnBack.setVisible(true);
@@ -475,18 +772,7 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 	 */
 	private void gameStart() {
 		state = STATE_PLAY;
-		score = 0;
-		GameHelper.time = 0;
-		
-		player.relive();
-		player.setRefPixelPosition(GameHelper.screenWidth / 2, 
-				GameHelper.screenHeight - player.getHeight() / 2);
-		player.setVisible(true);
-		
-		for(Enemy e : enemys)
-			e.setVisible(false);
-		GameHelper.refreshEnemy(enemys, false);
-		bullets.clear();
+		world.start();
 
 		bnStart.setVisible(false);
 		bnBack.setVisible(false);
@@ -498,9 +784,6 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 		dlgFinish.setVisible(false);
 		dlgRestart.setVisible(false);
 		dlgOvre.setVisible(false);
-		
-		bnPause.setPosition(0, 0);
-		bnBomb.setPosition(0, GameHelper.screenHeight - bnBomb.getHeight());
 	}
 	
 	/**
@@ -542,9 +825,6 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 		dlgFinish.setVisible(false);
 		dlgRestart.setVisible(false);
 		dlgOvre.setVisible(false);
-		
-		bnPause.setPosition(0, 0);
-		bnBomb.setPosition(0, GameHelper.screenHeight - bnBomb.getHeight());
 	}
 	
 	/**
@@ -563,25 +843,7 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback,
 		dlgRestart.setVisible(false);
 		dlgOvre.setVisible(true);
 		
-		dlgOvre.setText(Integer.toString(score));
-	}
-	
-	/**
-	 * 使用炸弹。这里会计算所有敌人的分数。
-	 * 
-	 * @return 分数。
-	 */
-	private int useBomb() {
-		int score = 0;
-		if(player.isVisible() && player.isAlive() && player.useBomb()) {
-			for(Enemy e : enemys) {
-				if(e.isAlive() && e.isVisible()) {
-					e.bombed();
-					score += e.getScore();
-				}
-			}
-		}
-		return score;
+		dlgOvre.setText(Integer.toString(world.getScore()));
 	}
 
 }
@@ -0,0 +1,293 @@
+package com.CES.example.game;
+
+/**
+ * 游戏世界。包含玩家，敌人，子弹，敌人子弹和装备，负责游戏逻辑：每调用一次tick就推进
+ * 一个逻辑帧，进行碰撞检测，刷新敌人，移动，换帧与开火。
+ * <P/>
+ * 敌人和子弹有各自专用的存储。装备是EquipmentManager中Entities的实体，
+ * 由移动，动画，碰撞和生成系统统一处理。
+ * <P/>
+ * 游戏世界不做任何绘制，所有的外部资源都来自GameContext。使用
+ * HeadlessGameContext时可以脱离Android环境运行，用于测试和测量游戏逻辑。
+ *
+ * @author Hong
+ *
+ */
+public class GameWorld {
+
+	// 逻辑帧时间
+	public final static int FRAME_TIME = 50;
+
+	private GameContext context;
+	private Player player;
+	private EquipmentManager equips;
+	private EntityList<Enemy> enemys;
+	private BulletStore bullets;
+	private EnemyBulletStore shots;
+	private int score;
+	private int tickCount;
+	private FrameProfiler profiler;
+	// 下一局使用的压力模式
+	private StressMode stress;
+
+	/**
+	 * 构造函数。
+	 *
+	 * @param context 游戏上下文
+	 */
+	public GameWorld(GameContext context) {
+		this.context = context;
+		player = Player.createPlayer(context);
+		enemys = new EntityList<Enemy>();
+		context.enemyPool.prefill(context);
+		bullets = new BulletStore(context);
+		shots = new EnemyBulletStore(context);
+		equips = new EquipmentManager(context);
+	}
+
+	/**
+	 * 开始新的一局。玩家复活并回到屏幕下方，清除敌人，子弹和装备。
+	 * 设置了压力模式时从这一局开始使用。
+	 */
+	public void start() {
+		score = 0;
+		tickCount = 0;
+		context.time = 0;
+		context.stress = stress;
+		player.setInvincible(stress != null);
+		if(stress != null)
+			context.random.setSeed(StressMode.SEED);
+
+		player.relive();
+		player.setRefPixelPosition(context.screenWidth / 2,
+				context.screenHeight - player.getHeight() / 2);
+		player.setVisible(true);
+
+		for(int i = 0; i < enemys.size(); i++)
+			enemys.get(i).setVisible(false);
+		GameHelper.refreshEnemy(context, enemys, false);
+		bullets.clear();
+		shots.clear();
+		equips.clear();
+	}
+
+	/**
+	 * 推进一个逻辑帧。
+	 */
+	public void tick() {
+		long start = (profiler != null)? System.nanoTime() : 0;
+		long t = start;
+		
+		// 碰撞检测
+		score += GameHelper.collideDetect(context, bullets, enemys);
+		t = mark(FrameProfiler.COLLIDE_BULLETS, t);
+		equips.collideDetect(player);
+		t = mark(FrameProfiler.COLLIDE_EQUIPMENT, t);
+		GameHelper.collideDetect(context, shots, player);
+		t = mark(FrameProfiler.COLLIDE_SHOTS, t);
+		GameHelper.collideDetect(context, player, enemys);
+		t = mark(FrameProfiler.COLLIDE_ENEMYS, t);
+		// 刷新敌人
+		if(tickCount % 2 == 0) {
+			GameHelper.refreshEnemy(context, enemys, true);
+			t = mark(FrameProfiler.REFRESH_ENEMY, t);
+		}
+		context.time += FRAME_TIME;
+
+		// 换帧与行动
+		if(tickCount % 2 == 0) player.nextFrame();
+		for(int i = 0; i < enemys.size(); i++) {
+			Enemy e = enemys.get(i);
+			e.move();
+			if(tickCount % 2 == 0) e.nextFrame();
+		}
+		shots.move(context.screenWidth, context.screenHeight);
+		for(int i = 0; i < enemys.size(); i++)
+			enemys.get(i).fire(shots);
+		equips.update(tickCount);
+
+		// 玩家开火
+		t = (profiler != null)? System.nanoTime() : 0;
+		bullets.compact();
+		shots.compact();
+		t = mark(FrameProfiler.CLEAR_BULLETS, t);
+		StressMode stress = context.stress;
+		if(tickCount % ((stress != null)? stress.firePeriod : 2) == 0) {
+			player.fire(bullets, (stress != null)? stress.guns : 1);
+			mark(FrameProfiler.FIRE, t);
+		}
+
+		// 每30秒就创建一个装备
+		equips.refresh();
+
+		tickCount++;
+		mark(FrameProfiler.TICK, start);
+	}
+	
+	/**
+	 * 按绘制顺序把玩家，敌人，子弹，敌人子弹和装备加入快照。
+	 * 只会读取游戏元素，不会分配对象。
+	 *
+	 * @param snapshot 快照
+	 */
+	public void snapshot(WorldSnapshot snapshot) {
+		snapshot.add(player, 0);
+		for(int i = 0; i < enemys.size(); i++) {
+			Enemy e = enemys.get(i);
+			snapshot.add(e, e.isAlive() ? e.getSpeed() : 0);
+		}
+		int bw = bullets.getWidth();
+		int bh = bullets.getHeight();
+		for(int i = 0; i < bullets.getCount(); i++) {
+			if(bullets.isAlive(i)) {
+				snapshot.add(bullets.getImage(), 
+						bullets.getFrameImageX(bullets.getType(i)), 0, 
+						bw, bh, bullets.getX(i), bullets.getY(i), 
+						-GameHelper.BULLET_STEPS * bh);
+			}
+		}
+		int sx = shots.getFrameImageX();
+		int sw = shots.getWidth();
+		int sh = shots.getHeight();
+		for(int i = 0; i < shots.getCount(); i++) {
+			if(shots.isAlive(i)) {
+				snapshot.add(shots.getImage(), sx, 0, sw, sh, 
+						shots.getX(i), shots.getY(i), shots.getVy(i));
+			}
+		}
+		equips.snapshot(snapshot);
+	}
+
+	/**
+	 * 记录一个阶段的耗时。没有设置分析器时什么都不做。
+	 * 
+	 * @param phase 阶段
+	 * @param start 阶段开始的时间(纳秒)
+	 * @return 下一个阶段的开始时间(纳秒)
+	 */
+	private long mark(int phase, long start) {
+		if(profiler == null)
+			return 0;
+		return profiler.record(phase, start);
+	}
+
+	/**
+	 * 使用炸弹。这里会计算所有敌人的分数并加到总分上。
+	 *
+	 * @return 分数。
+	 */
+	public int useBomb() {
+		int score = 0;
+		if(player.isVisible() && player.isAlive() && player.useBomb()) {
+			for(int i = 0; i < enemys.size(); i++) {
+				Enemy e = enemys.get(i);
+				if(e.isAlive() && e.isVisible()) {
+					e.bombed();
+					score += e.getScore();
+				}
+			}
+		}
+		this.score += score;
+		return score;
+	}
+
+	/**
+	 * 这一局是否结束。玩家爆炸完后就结束了。
+	 *
+	 * @return 结束返回true，否则返回false。
+	 */
+	public boolean isOver() {
+		return !player.isVisible();
+	}
+
+	/**
+	 * 设置压力模式，为null时恢复正常游戏。在下一局开始时生效。
+	 *
+	 * @param stress 压力模式
+	 */
+	public void setStressMode(StressMode stress) {
+		this.stress = stress;
+	}
+
+	/**
+	 * 设置帧性能分析器，为null时不记录。
+	 *
+	 * @param profiler 帧性能分析器
+	 */
+	public void setProfiler(FrameProfiler profiler) {
+		this.profiler = profiler;
+	}
+
+	/**
+	 * 获取游戏上下文。
+	 *
+	 * @return 游戏上下文
+	 */
+	public GameContext getContext() {
+		return context;
+	}
+
+	/**
+	 * 获取玩家。
+	 *
+	 * @return 玩家
+	 */
+	public Player getPlayer() {
+		return player;
+	}
+
+	/**
+	 * 获取装备管理器。
+	 *
+	 * @return 装备管理器
+	 */
+	public EquipmentManager getEquipments() {
+		return equips;
+	}
+
+	/**
+	 * 获取敌人列表。
+	 *
+	 * @return 敌人列表
+	 */
+	public EntityList<Enemy> getEnemys() {
+		return enemys;
+	}
+
+	/**
+	 * 获取子弹。
+	 *
+	 * @return 子弹
+	 */
+	public BulletStore getBullets() {
+		return bullets;
+	}
+
+	/**
+	 * 获取敌人子弹。
+	 *
+	 * @return 敌人子弹
+	 */
+	public EnemyBulletStore getShots() {
+		return shots;
+	}
+
+	/**
+	 * 获取得分。
+	 *
+	 * @return 得分
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * 获取这一局已推进的逻辑帧数。
+	 *
+	 * @return 逻辑帧数
+	 */
+	public int getTickCount() {
+		return tickCount;
+	}
+
+}
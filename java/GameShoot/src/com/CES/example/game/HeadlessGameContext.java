@@ -0,0 +1,62 @@
+package com.CES.example.game;
+
+import java.util.Random;
+
+import android.graphics.Bitmap;
+
+/**
+ * 无界面的游戏上下文。没有图片也不播放音效，图片的大小与assets中的图片一致，
+ * 所以游戏逻辑的结果与真机相同。用于在桌面JVM上测试游戏逻辑和测量性能，
+ * 固定随机种子可以让每次运行的结果都一样。
+ *
+ * @author Hong
+ *
+ */
+public class HeadlessGameContext extends GameContext {
+
+	private final static String[] fileNames = new String[] {"background.png",
+		"player.png", "enemy1.png", "enemy2.png", "enemy3.png", "equip.png",
+		"bullet.png", "bomb.png", "pause.png"};
+	private final static int[][] sizes = new int[][] {{480, 850},
+		{550, 130}, {300, 55}, {480, 100}, {1530, 260}, {140, 110},
+		{24, 25}, {70, 70}, {50, 55}};
+
+	/**
+	 * 构造函数。
+	 *
+	 * @param screenWidth 屏宽
+	 * @param screenHeight 屏高
+	 * @param seed 随机种子
+	 */
+	public HeadlessGameContext(int screenWidth, int screenHeight, long seed) {
+		super(screenWidth, screenHeight, new Random(seed));
+	}
+
+	@Override
+	public Bitmap getBitmap(String fileName) {
+		return null;
+	}
+
+	@Override
+	public int getImageWidth(String fileName) {
+		return sizes[indexOf(fileName)][0];
+	}
+
+	@Override
+	public int getImageHeight(String fileName) {
+		return sizes[indexOf(fileName)][1];
+	}
+
+	@Override
+	public void playSound(int id) {
+	}
+
+	private int indexOf(String fileName) {
+		for(int i = 0; i < fileNames.length; i++) {
+			if(fileName.equals(fileNames[i]))
+				return i;
+		}
+		throw new IllegalArgumentException("Unkown image " + fileName);
+	}
+
+}
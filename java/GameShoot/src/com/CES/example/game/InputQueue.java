@@ -0,0 +1,106 @@
+package com.CES.example.game;
+
+/**
+ * 输入事件队列。UI线程与逻辑线程之间的单生产者单消费者环形缓冲区。
+ * <P/>
+ * UI线程收到触摸或按键时只把事件写入队列，不直接改动游戏内容；逻辑线程在每个
+ * 逻辑帧开始时把队列中的事件全部取出处理。事件只由动作和坐标三个整数组成，
+ * 保存在预先分配的数组中，入队出队都不会分配对象。
+ * <P/>
+ * 队列不加锁。写入方只修改tail，读取方只修改head，两者都是volatile的：
+ * 写入方先写事件再更新tail，读取方读到tail之后就一定能看到之前写入的事件，
+ * 读取方处理完事件后才更新head，写入方看到head之后才会覆盖这些位置。
+ *
+ * @author Hong
+ *
+ */
+public class InputQueue {
+
+	private final int[] actions;
+	private final int[] xs;
+	private final int[] ys;
+	private final int mask;
+
+	// 下一个读取的位置，只由读取方修改。
+	private volatile int head = 0;
+	// 下一个写入的位置，只由写入方修改。
+	private volatile int tail = 0;
+
+	/**
+	 * 构造函数。
+	 *
+	 * @param capacity 容量，会向上取整到2的幂。
+	 */
+	public InputQueue(int capacity) {
+		int size = 1;
+		while(size < capacity)
+			size <<= 1;
+		actions = new int[size];
+		xs = new int[size];
+		ys = new int[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * 写入一个事件，只能由写入方调用。
+	 *
+	 * @param action 动作
+	 * @param x 横坐标
+	 * @param y 纵坐标
+	 * @return 队列已满时返回false，事件被丢弃。
+	 */
+	public boolean offer(int action, int x, int y) {
+		int t = tail;
+		if(t - head > mask)
+			return false;
+		int i = t & mask;
+		actions[i] = action;
+		xs[i] = x;
+		ys[i] = y;
+		tail = t + 1;
+		return true;
+	}
+
+	/**
+	 * 取出所有事件交给监听器，只能由读取方调用。
+	 *
+	 * @param listener 事件监听器
+	 * @return 处理的事件数
+	 */
+	public int drain(Listener listener) {
+		int h = head;
+		int t = tail;
+		int count = t - h;
+		while(h != t) {
+			int i = h & mask;
+			listener.onInput(actions[i], xs[i], ys[i]);
+			h++;
+		}
+		head = h;
+		return count;
+	}
+
+	/**
+	 * 队列中的事件数。
+	 *
+	 * @return 事件数
+	 */
+	public int size() {
+		return tail - head;
+	}
+
+	/**
+	 * 事件监听器。
+	 */
+	public interface Listener {
+		/**
+		 * 处理一个事件。
+		 *
+		 * @param action 动作
+		 * @param x 横坐标
+		 * @param y 纵坐标
+		 */
+		public void onInput(int action, int x, int y);
+	}
+
+}
@@ -49,11 +49,16 @@ public class MainActivity extends Activity {
 		
 		// 创建游戏视图
 		view = new GameView(this, handler, screenWidth, screenHeight);
+		int maxEnemys = getIntent().getIntExtra(StressMode.EXTRA_MAX_ENEMYS, 0);
+		if(maxEnemys > 0)
+			view.setStressMode(StressMode.create(maxEnemys));
 		setContentView(view);
 	}
 
 	@Override
 	protected void onDestroy() {
+		// 停止游戏线程
+		view.onDestroy();
 		// 停止所有音乐
 		GameHelper.mediaPlayer.stop();
 		GameHelper.mediaPlayer.release();
@@ -77,11 +82,11 @@ public class MainActivity extends Activity {
 	}
 
 	/**
-	 * 键盘事件响应处。在游戏的过程中要对返回键进行一些特殊的处理。
+	 * 键盘事件响应处。在游戏的过程中要对返回键和菜单键进行一些特殊的处理。
 	 */
 	@Override
 	public boolean onKeyDown(int keyCode, KeyEvent event) {
-		if(keyCode == KeyEvent.KEYCODE_BACK) {
+		if(keyCode == KeyEvent.KEYCODE_BACK || keyCode == KeyEvent.KEYCODE_MENU) {
 			if(view != null) {
 				if(view.dispatchKeyEvent(event))
 					return true;
@@ -0,0 +1,50 @@
+package com.CES.example.game;
+
+/**
+ * 移动系统。按序号顺序移动所有有位置与速度组件的实体，有速度轨迹的实体
+ * 每移动一次就取轨迹中的下一个值。移出屏幕下方的实体会被销毁。
+ *
+ * @author Hong
+ *
+ */
+public class MovementSystem {
+
+	private final static int MOVABLE = Entities.POSITION | Entities.VELOCITY;
+
+	/**
+	 * 推进一个逻辑帧。
+	 *
+	 * @param entities 实体
+	 * @param screenHeight 屏高
+	 * @return 被销毁的实体数
+	 */
+	public int update(Entities entities, int screenHeight) {
+		final int n = entities.count;
+		final int[] mask = entities.mask;
+		final int[] x = entities.x;
+		final int[] y = entities.y;
+		final int[] vx = entities.vx;
+		final int[] vy = entities.vy;
+		final int[][] track = entities.track;
+		final int[] trackIndex = entities.trackIndex;
+		int removed = 0;
+		for(int i = 0; i < n; i++) {
+			if((mask[i] & MOVABLE) != MOVABLE)
+				continue;
+			int[] t = track[i];
+			if(t != null) {
+				int k = trackIndex[i];
+				vy[i] = t[k];
+				trackIndex[i] = (k == t.length - 1)? k : k + 1;
+			}
+			x[i] += vx[i];
+			y[i] += vy[i];
+			if(y[i] > screenHeight) {
+				entities.destroy(i);
+				removed++;
+			}
+		}
+		return removed;
+	}
+
+}
@@ -0,0 +1,284 @@
+package com.CES.example.game;
+
+/**
+ * 并行的子弹碰撞检测。候选很多时(压力模式或弹幕)，把子弹按序号分成连续的
+ * 几段，每段由一个线程找出它会击中哪些敌人，各自放入自己的CollisionEvents，
+ * 全部完成后按段的顺序合并。合并后的顺序与一个线程从头到尾找的完全一样，
+ * 真正的击中与计分仍由调用的线程按这个顺序处理，所以结果与串行是一样的。
+ * <P/>
+ * 找击中时只读取子弹，敌人和SweepAndPrune，不修改它们，这时逻辑线程也在
+ * 等待，不会有别的线程修改。耗时主要取决于查询到的候选数而不是子弹数，
+ * 所以上一次的候选数少于最小值或只有一个线程时直接在调用的线程中完成，
+ * 不会切换线程。
+ * <P/>
+ * ForkJoinPool要到API 21才有，所以用固定的几个工作线程：调用的线程处理第一段，
+ * 其余的段交给工作线程，等它们全部完成，与fork再join一样。任何一段出错时
+ * 都会先等所有的段结束再把错误抛给调用者，不会有线程还在读取子弹。
+ * 工作线程在第一次需要时才启动，之后一直等待下一次，每一帧都不会分配对象。
+ * stop()可以在任何时候调用：它先等已经分出的段完成，再让这一组工作线程
+ * 退出，所以正在等待的调用者不会一直等下去，之后重新启动的工作线程也不会
+ * 与还没退出的旧线程抢同一段。
+ *
+ * @author Hong
+ *
+ */
+public class ParallelCollider {
+
+	// 默认的最小候选数，上一次少于它时串行。ParallelCollideBenchmark在桌面上
+	// 测得每个候选25~130纳秒，一次分段与等待约7微秒，设备上唤醒线程要慢得多，
+	// 所以取至少两百微秒的串行工作量。
+	public final static int MIN_PAIRS = 8192;
+	// 默认最多使用的线程数，包括调用的线程。
+	private final static int MAX_THREADS = 4;
+
+	private final int threads;
+	private final int minPairs;
+	private final int[][] buffers;
+	private final CollisionEvents[] events;
+	private final int[] pairs;
+	// 上一次查询的候选数
+	private int lastPairs;
+
+	private final Object lock = new Object();
+	// 当前的一组工作线程，不属于这一组的工作线程会退出。
+	private Thread[] workers;
+	private int generation;
+	private int pending;
+	private Throwable failure;
+
+	// 这一次的任务
+	private SweepAndPrune sweep;
+	private BulletStore bullets;
+	private EntityList<Enemy> enemys;
+
+	/**
+	 * 构造函数。线程数为CPU核数，但不超过MAX_THREADS。
+	 */
+	public ParallelCollider() {
+		this(Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()), 
+				MIN_PAIRS);
+	}
+
+	/**
+	 * 构造函数。
+	 *
+	 * @param threads 线程数，包括调用的线程，为1时总是串行。
+	 * @param minPairs 上一次的候选数达到这个值才并行，为0时总是并行。
+	 */
+	public ParallelCollider(int threads, int minPairs) {
+		this.threads = Math.max(1, threads);
+		this.minPairs = minPairs;
+		buffers = new int[this.threads][32];
+		events = new CollisionEvents[this.threads];
+		for(int i = 1; i < this.threads; i++)
+			events[i] = new CollisionEvents(GameHelper.BULLET_STEPS);
+		pairs = new int[this.threads];
+	}
+
+	/**
+	 * 找出所有子弹会击中的敌人，按子弹序号的顺序放入out，还没有排序。
+	 * 查询的候选数计入sweep的统计。sweep必须已经与敌人列表同步。
+	 *
+	 * @param sweep 敌人的X区间排序
+	 * @param bullets 子弹
+	 * @param enemys 敌人列表
+	 * @param out 事件
+	 */
+	public void collect(SweepAndPrune sweep, BulletStore bullets, 
+			EntityList<Enemy> enemys, CollisionEvents out) {
+		int size = sweep.size();
+		for(int i = 0; i < threads; i++) {
+			if(buffers[i].length < size)
+				buffers[i] = new int[Math.max(size, buffers[i].length * 2)];
+		}
+
+		int count = bullets.getCount();
+		int total;
+		if(threads == 1 || lastPairs < minPairs || count < threads || size == 0) {
+			total = GameHelper.collectHits(sweep, buffers[0], bullets, enemys, 
+					0, count, out);
+		}
+		else
+			total = collectParallel(sweep, bullets, enemys, out);
+		lastPairs = total;
+		sweep.addPairsTested(total);
+	}
+
+	/**
+	 * 停止工作线程。先等已经分出的段完成，之后再需要并行时会重新启动。
+	 */
+	public void stop() {
+		Thread[] workers;
+		boolean interrupted = false;
+		synchronized(lock) {
+			while(pending > 0) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					// 调用者在等这些段，必须等它们完成。
+					interrupted = true;
+				}
+			}
+			workers = this.workers;
+			this.workers = null;
+			lock.notifyAll();
+		}
+		if(interrupted)
+			Thread.currentThread().interrupt();
+		if(workers == null)
+			return;
+		for(int i = 1; i < workers.length; i++) {
+			try {
+				workers[i].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 线程数，包括调用的线程。
+	 *
+	 * @return 线程数
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * 分段并行地找出击中。调用的线程处理第一段，等所有的工作线程都结束后
+	 * 按段的顺序合并。
+	 *
+	 * @return 查询的候选数
+	 */
+	private int collectParallel(SweepAndPrune sweep, BulletStore bullets, 
+			EntityList<Enemy> enemys, CollisionEvents out) {
+		synchronized(lock) {
+			if(workers == null)
+				startWorkers();
+			this.sweep = sweep;
+			this.bullets = bullets;
+			this.enemys = enemys;
+			pending = threads - 1;
+			failure = null;
+			generation++;
+			lock.notifyAll();
+		}
+
+		// 第一段在调用的线程中完成，出错时也要等工作线程结束。
+		int total;
+		try {
+			total = GameHelper.collectHits(sweep, buffers[0], bullets, enemys, 
+					0, bullets.getCount() / threads, out);
+		} finally {
+			awaitWorkers();
+		}
+		if(failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		if(failure instanceof Error)
+			throw (Error) failure;
+
+		for(int i = 1; i < threads; i++) {
+			out.addAll(events[i]);
+			total += pairs[i];
+		}
+		return total;
+	}
+
+	/**
+	 * 等待所有的工作线程完成这一次的任务。
+	 */
+	private void awaitWorkers() {
+		boolean interrupted = false;
+		synchronized(lock) {
+			while(pending > 0) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					// 工作线程还在读取子弹，必须等它们完成。
+					interrupted = true;
+				}
+			}
+			this.sweep = null;
+			this.bullets = null;
+			this.enemys = null;
+		}
+		if(interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * 启动一组工作线程，持有lock时调用。工作线程是守护线程，不会阻止进程退出。
+	 */
+	private void startWorkers() {
+		workers = new Thread[threads];
+		for(int i = 1; i < threads; i++) {
+			workers[i] = new Thread(new Worker(i, generation, workers), 
+					"GameCollide-" + i);
+			workers[i].setDaemon(true);
+			workers[i].start();
+		}
+	}
+
+	/**
+	 * 工作线程。每一次处理第index段子弹，无论成功与否最后都会报告完成。
+	 */
+	private class Worker implements Runnable {
+
+		private final int index;
+		private final Thread[] group;
+		private int seen;
+
+		Worker(int index, int generation, Thread[] group) {
+			this.index = index;
+			this.seen = generation;
+			this.group = group;
+		}
+
+		@Override
+		public void run() {
+			while(true) {
+				SweepAndPrune sweep;
+				BulletStore bullets;
+				EntityList<Enemy> enemys;
+				synchronized(lock) {
+					while(workers == group && generation == seen) {
+						try {
+							lock.wait();
+						} catch (InterruptedException e) {
+							// 只由stop()结束，否则调用的线程会一直等待这一段。
+						}
+					}
+					// stop()等分出的段完成后才换掉这一组，这时没有未完成的段。
+					if(workers != group)
+						return;
+					seen = generation;
+					sweep = ParallelCollider.this.sweep;
+					bullets = ParallelCollider.this.bullets;
+					enemys = ParallelCollider.this.enemys;
+				}
+
+				CollisionEvents out = events[index];
+				Throwable error = null;
+				try {
+					out.clear();
+					int count = bullets.getCount();
+					pairs[index] = GameHelper.collectHits(sweep, buffers[index], 
+							bullets, enemys, count * index / threads, 
+							count * (index + 1) / threads, out);
+				} catch (Throwable e) {
+					error = e;
+				} finally {
+					synchronized(lock) {
+						if(error != null && failure == null)
+							failure = error;
+						if(--pending == 0)
+							lock.notifyAll();
+					}
+				}
+			}
+		}
+	}
+
+}
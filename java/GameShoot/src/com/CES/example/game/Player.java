@@ -1,7 +1,5 @@
 package com.CES.example.game;
 
-import java.util.List;
-
 import javax.microedition.lcdui.game.Sprite;
 
 import android.graphics.Bitmap;
@@ -14,10 +12,12 @@ import android.graphics.Bitmap;
  */
 public class Player extends Sprite {
 	
+	private GameContext context;
 	private boolean isAlive;
 	private int doubleGunTime;
 	private int bombCount;
 	private int fireCount;
+	private boolean invincible;
 	
 	private int[] flySequence;	// 飞行帧
 	private int[] bombSequence;	// 爆炸帧
@@ -25,12 +25,17 @@ public class Player extends Sprite {
 	/**
 	 * 构造函数。
 	 * 
+	 * @param context 游戏上下文
 	 * @param image 玩家飞机图片
+	 * @param imageWidth 图片宽
+	 * @param imageHeight 图片高
 	 * @param frameWidth 帧宽
 	 * @param frameHeight 帧高
 	 */
-	private Player(Bitmap image, int frameWidth, int frameHeight) {
-		super(image, frameWidth, frameHeight);
+	private Player(GameContext context, Bitmap image, int imageWidth, 
+			int imageHeight, int frameWidth, int frameHeight) {
+		super(image, imageWidth, imageHeight, frameWidth, frameHeight);
+		this.context = context;
 		this.isAlive = true;
 		this.flySequence = new int[]{0, 1};
 		this.bombSequence = new int[]{2, 3, 4, 4};
@@ -42,14 +47,18 @@ public class Player extends Sprite {
 	/**
 	 * 创建玩家
 	 * 
+	 * @param context 游戏上下文
 	 * @return 玩家Player实例
 	 */
-	public static Player createPlayer() {
-		Bitmap image = GameHelper.getBitmap("player.png");
+	public static Player createPlayer(GameContext context) {
+		Bitmap image = context.getBitmap("player.png");
+		int imageWidth = context.getImageWidth("player.png");
+		int imageHeight = context.getImageHeight("player.png");
 		int frameCount = 5;
-		int frameWidth = image.getWidth() / frameCount;
-		int frameHeight = image.getHeight();
-		Player player = new Player(image, frameWidth, frameHeight);
+		int frameWidth = imageWidth / frameCount;
+		int frameHeight = imageHeight;
+		Player player = new Player(context, image, imageWidth, imageHeight, 
+				frameWidth, frameHeight);
 		return player;
 	}
 	
@@ -68,12 +77,12 @@ public class Player extends Sprite {
 		
 		if(x + dx < 0)
 			dx = -x;
-		if(x + dx + w > GameHelper.screenWidth)
-			dx = GameHelper.screenWidth - x - w;
+		if(x + dx + w > context.screenWidth)
+			dx = context.screenWidth - x - w;
 		if(y + dy < 0)
 			dy = -y;
-		if(y + dy + w > GameHelper.screenHeight)
-			dy = GameHelper.screenHeight - y - h;
+		if(y + dy + w > context.screenHeight)
+			dy = context.screenHeight - y - h;
 		
 		super.move(dx, dy);
 	}
@@ -105,12 +114,12 @@ public class Player extends Sprite {
 		int h = getHeight();
 		if(x - w / 2 < 0)
 			x = w / 2;
-		if(x + w / 2 > GameHelper.screenWidth)
-			x = GameHelper.screenWidth - w / 2;
+		if(x + w / 2 > context.screenWidth)
+			x = context.screenWidth - w / 2;
 		if(y - h / 2 < 0)
 			y = h / 2;
-		if(y + h / 2 > GameHelper.screenHeight)
-			y = GameHelper.screenHeight - h / 2;
+		if(y + h / 2 > context.screenHeight)
+			y = context.screenHeight - h / 2;
 		setRefPixelPosition(x, y);
 	}
 	
@@ -118,45 +127,72 @@ public class Player extends Sprite {
 	 * 被撞击。被撞击后会死亡。将当前帧序换成爆炸帧序。
 	 */
 	public void knocked() {
-		if(!isAlive || !isVisible())
+		if(!isAlive || !isVisible() || invincible)
 			return;
 		isAlive = false;
 		setFrameSequence(bombSequence);
-		GameHelper.playSound(R.raw.game_over);
+		context.playSound(R.raw.game_over);
 	}
 	
 	/**
 	 * 发射子弹。如果还有双枪时间就发射两颗子弹，否则发射一颗子弹。
 	 * 
-	 * @param bullets 子弹列表。
+	 * @param bullets 子弹。
 	 */
-	public void fire(List<Bullet> bullets) {
+	public void fire(BulletStore bullets) {
 		if(!isAlive || !isVisible())
 			return;
 		
+		int x = getX() + getWidth() / 2 - bullets.getWidth() / 2;
+		int y = getY() - (fireCount % 6) * 25 - bullets.getHeight();
 		if(doubleGunTime > 0) {
-			Bullet b = Bullet.createBullet(Bullet.TYPE2);
-			b.setPosition(getX() + getWidth() / 2 - b.getWidth() / 2 - 15,
-					getY() - (fireCount % 6) * 25 - b.getHeight());
-			b.setVisible(true);
-			bullets.add(b);
-			
-			b = Bullet.createBullet(Bullet.TYPE2);
-			b.setPosition(getX() + getWidth() / 2 - b.getWidth() / 2 + 15,
-					getY() - (fireCount % 6) * 25 - b.getHeight());
-			b.setVisible(true);
-			bullets.add(b);
+			bullets.acquire(BulletStore.TYPE2, x - 15, y);
+			bullets.acquire(BulletStore.TYPE2, x + 15, y);
 			doubleGunTime--;
 		}
 		else {
-			Bullet b = Bullet.createBullet(Bullet.TYPE1);
-			b.setPosition(getX() + getWidth() / 2 - b.getWidth() / 2,
-					getY() - (fireCount % 6) * 25 - b.getHeight());
-			b.setVisible(true);
-			bullets.add(b);
+			bullets.acquire(BulletStore.TYPE1, x, y);
 		}
 		fireCount++;
-		GameHelper.playSound(R.raw.fire);
+		context.playSound(R.raw.fire);
+	}
+
+	/**
+	 * 发射一排子弹，均匀分布在整个屏幕宽度上，用于压力模式。一排放不下时
+	 * 分成几排，每排在前一排之上一个子弹高度。只有一颗时与fire(BulletStore)相同。
+	 * 
+	 * @param bullets 子弹。
+	 * @param guns 子弹数
+	 */
+	public void fire(BulletStore bullets, int guns) {
+		if(guns <= 1) {
+			fire(bullets);
+			return;
+		}
+		if(!isAlive || !isVisible())
+			return;
+		
+		int w = bullets.getWidth();
+		int h = bullets.getHeight();
+		int columns = Math.min(guns, Math.max(1, context.screenWidth / w));
+		int step = context.screenWidth / columns;
+		int x = step / 2 - w / 2;
+		int y = getY() - h;
+		for(int i = 0; i < guns; i++) {
+			bullets.acquire(BulletStore.TYPE1, x + (i % columns) * step, 
+					y - (i / columns) * h);
+		}
+		fireCount++;
+		context.playSound(R.raw.fire);
+	}
+
+	/**
+	 * 设置是否无敌。无敌时被撞击也不会死亡，用于压力模式。
+	 * 
+	 * @param invincible 是否无敌
+	 */
+	public void setInvincible(boolean invincible) {
+		this.invincible = invincible;
 	}
 
 	/**
@@ -184,7 +220,7 @@ public class Player extends Sprite {
 	 */
 	public void doubleGun() {
 		doubleGunTime = 200;
-		GameHelper.playSound(R.raw.get_double_gun);
+		context.playSound(R.raw.get_double_gun);
 	}
 	
 	/**
@@ -192,7 +228,7 @@ public class Player extends Sprite {
 	 */
 	public void addBomb() {
 		bombCount++;
-		GameHelper.playSound(R.raw.get_bomb);
+		context.playSound(R.raw.get_bomb);
 	}
 	
 	/**
@@ -203,7 +239,7 @@ public class Player extends Sprite {
 	public boolean useBomb() {
 		if(bombCount > 0) {
 			bombCount--;
-			GameHelper.playSound(R.raw.use_bomb);
+			context.playSound(R.raw.use_bomb);
 			return true;
 		}
 		else
@@ -0,0 +1,68 @@
+package com.CES.example.game;
+
+/**
+ * 快照缓冲区。逻辑线程与绘图线程之间的双缓冲。
+ * <P/>
+ * 逻辑线程写后台快照，写完后发布；绘图线程取最新发布的快照作为前台快照绘制。
+ * 除了前台和后台两个快照外还有一个交换区，发布与获取都只是在锁内交换引用，
+ * 所以绘制再慢也不会阻塞逻辑线程，逻辑线程也不会写到正在绘制的快照。
+ *
+ * @author Hong
+ *
+ */
+public class SnapshotBuffer {
+
+	private WorldSnapshot back;
+	private WorldSnapshot ready;
+	private WorldSnapshot front;
+	private boolean isFresh;
+	private final Object lock = new Object();
+
+	/**
+	 * 构造函数。
+	 */
+	public SnapshotBuffer() {
+		back = new WorldSnapshot();
+		ready = new WorldSnapshot();
+		front = new WorldSnapshot();
+	}
+
+	/**
+	 * 获取后台快照，只能由逻辑线程调用。
+	 *
+	 * @return 后台快照
+	 */
+	public WorldSnapshot getBack() {
+		return back;
+	}
+
+	/**
+	 * 发布后台快照，只能由逻辑线程调用。
+	 */
+	public void publish() {
+		synchronized(lock) {
+			WorldSnapshot t = ready;
+			ready = back;
+			back = t;
+			isFresh = true;
+		}
+	}
+
+	/**
+	 * 获取最新发布的快照，只能由绘图线程调用。没有新的快照时返回上一次的快照。
+	 *
+	 * @return 前台快照
+	 */
+	public WorldSnapshot acquire() {
+		synchronized(lock) {
+			if(isFresh) {
+				WorldSnapshot t = front;
+				front = ready;
+				ready = t;
+				isFresh = false;
+			}
+			return front;
+		}
+	}
+
+}
@@ -0,0 +1,247 @@
+package com.CES.example.game;
+
+import android.media.SoundPool;
+import android.util.SparseIntArray;
+
+/**
+ * 音效队列。游戏线程只把要播放的音效记下来，由专门的音效线程调用SoundPool播放，
+ * 游戏线程不会因为SoundPool而被阻塞。
+ * <P/>
+ * 每种音效有一个序号，资源ID到序号的查找用SparseIntArray，不会装箱。
+ * 同一个逻辑帧中同一种音效只播放一次，多余的被合并。每个逻辑帧结束时调用
+ * flush()，按优先级从高到低把这一帧的音效放入环形缓冲区，再唤醒音效线程。
+ * 缓冲区与InputQueue一样是单生产者单消费者的，不加锁。
+ * <P/>
+ * SoundPool只有MAX_STREAMS个声道。音效线程记录每个声道正在播放的音效和
+ * 结束的时间：同一种音效同时播放的数量有上限，达到上限时新的被丢弃；
+ * 声道全部占用时，新的音效如果比正在播放的某个音效优先级高，就停止那个
+ * 优先级最低，开始得最早的音效，否则丢弃新的音效。
+ *
+ * @author Hong
+ *
+ */
+public class SoundQueue {
+
+	// SoundPool的声道数，要与创建SoundPool时的参数一致。
+	public final static int MAX_STREAMS = 4;
+	private final static int CAPACITY = 64;
+
+	// 每种音效的资源ID，优先级，同时播放的上限和时长(毫秒)。优先级越大越重要。
+	private final static int[][] SOUNDS = new int[][] {
+		{R.raw.game_over,		5, 1, 2100},
+		{R.raw.use_bomb,		4, 1, 2000},
+		{R.raw.get_bomb,		3, 1, 550},
+		{R.raw.get_double_gun,	3, 1, 610},
+		{R.raw.button,			3, 1, 320},
+		{R.raw.enemy3_down,		2, 1, 3340},
+		{R.raw.enemy2_down,		2, 1, 1620},
+		{R.raw.enemy1_down,		1, 2, 850},
+		{R.raw.fire,			0, 1, 230},
+	};
+
+	private final SoundPool soundPool;
+	// 资源ID到序号
+	private final SparseIntArray slots;
+	// 按序号保存的SoundPool中的ID
+	private final int[] soundIds;
+	// 这一帧每种音效被请求的次数，只由游戏线程使用。
+	private final int[] pending;
+
+	// 环形缓冲区，保存音效序号。
+	private final int[] queue;
+	private final int mask;
+	private volatile int head = 0;
+	private volatile int tail = 0;
+
+	// 声道，只由音效线程使用。
+	private final int[] voiceSlot;
+	private final int[] voiceStream;
+	private final long[] voiceStart;
+	private final long[] voiceEnd;
+
+	private final Object lock = new Object();
+	private final GameLoop loop;
+
+	/**
+	 * 构造函数。
+	 *
+	 * @param soundPool 声道数为MAX_STREAMS的SoundPool
+	 * @param soundPoolMap 资源ID到SoundPool中的ID
+	 */
+	public SoundQueue(SoundPool soundPool, SparseIntArray soundPoolMap) {
+		this.soundPool = soundPool;
+		slots = new SparseIntArray();
+		soundIds = new int[SOUNDS.length];
+		pending = new int[SOUNDS.length];
+		for(int i = 0; i < SOUNDS.length; i++) {
+			slots.put(SOUNDS[i][0], i);
+			soundIds[i] = soundPoolMap.get(SOUNDS[i][0], 0);
+		}
+
+		queue = new int[CAPACITY];
+		mask = CAPACITY - 1;
+
+		voiceSlot = new int[MAX_STREAMS];
+		voiceStream = new int[MAX_STREAMS];
+		voiceStart = new long[MAX_STREAMS];
+		voiceEnd = new long[MAX_STREAMS];
+		for(int i = 0; i < MAX_STREAMS; i++)
+			voiceSlot[i] = -1;
+
+		loop = new GameLoop("GameAudio", new AudioTask());
+	}
+
+	/**
+	 * 请求播放一个音效，只能由游戏线程调用。到flush()时才会真正交给音效线程。
+	 *
+	 * @param id 声音资源ID
+	 */
+	public void post(int id) {
+		int slot = slots.get(id, -1);
+		if(slot < 0)
+			return;
+		pending[slot]++;
+	}
+
+	/**
+	 * 把这一帧请求的音效按优先级交给音效线程，只能由游戏线程调用。
+	 * SOUNDS按优先级从高到低排列，所以按序号顺序放入即可。
+	 */
+	public void flush() {
+		int t = tail;
+		for(int i = 0; i < pending.length; i++) {
+			if(pending[i] == 0)
+				continue;
+			pending[i] = 0;
+			if(t - head > mask)
+				continue;
+			queue[t & mask] = i;
+			t++;
+		}
+		if(t == tail)
+			return;
+		tail = t;
+		synchronized(lock) {
+			lock.notify();
+		}
+	}
+
+	/**
+	 * 启动音效线程。
+	 *
+	 * @return 第一次启动返回true。
+	 */
+	public boolean start() {
+		return loop.start();
+	}
+
+	/**
+	 * 暂停音效线程，返回时线程已经停下。
+	 */
+	public void pause() {
+		loop.pause();
+	}
+
+	/**
+	 * 恢复音效线程。
+	 */
+	public void resume() {
+		loop.resume();
+	}
+
+	/**
+	 * 停止音效线程并等待它退出。
+	 */
+	public void stop() {
+		loop.stop();
+	}
+
+	/**
+	 * 音效线程的任务。等待flush()的唤醒，然后播放缓冲区中所有的音效。
+	 */
+	private class AudioTask implements GameLoop.Task {
+
+		@Override
+		public void onResume() {
+		}
+
+		@Override
+		public void onFrame() {
+			synchronized(lock) {
+				while(head == tail && loop.isRunning()) {
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						// 循环被暂停或停止。
+						return;
+					}
+				}
+			}
+			int h = head;
+			int t = tail;
+			while(h != t) {
+				play(queue[h & mask]);
+				h++;
+			}
+			head = h;
+		}
+
+		@Override
+		public void onPause() {
+		}
+	}
+
+	/**
+	 * 在音效线程中播放一个音效，按声道数，每种音效的上限和优先级决定是否播放。
+	 *
+	 * @param slot 音效序号
+	 */
+	private void play(int slot) {
+		int soundId = soundIds[slot];
+		if(soundId == 0)
+			return;
+
+		long now = System.nanoTime() / 1000000L;
+		int priority = SOUNDS[slot][1];
+		int same = 0;
+		int free = -1;
+		int victim = -1;
+		for(int i = 0; i < MAX_STREAMS; i++) {
+			int s = voiceSlot[i];
+			if(s >= 0 && voiceEnd[i] <= now) {
+				voiceSlot[i] = s = -1;
+			}
+			if(s < 0) {
+				if(free < 0)
+					free = i;
+				continue;
+			}
+			if(s == slot)
+				same++;
+			// 优先级最低的声道中开始得最早的一个
+			if(victim < 0 || SOUNDS[s][1] < SOUNDS[voiceSlot[victim]][1]
+					|| (SOUNDS[s][1] == SOUNDS[voiceSlot[victim]][1] 
+					&& voiceStart[i] < voiceStart[victim]))
+				victim = i;
+		}
+
+		if(same >= SOUNDS[slot][2])
+			return;
+		int voice = free;
+		if(voice < 0) {
+			if(SOUNDS[voiceSlot[victim]][1] >= priority)
+				return;
+			soundPool.stop(voiceStream[victim]);
+			voice = victim;
+		}
+
+		int stream = soundPool.play(soundId, 1, 1, priority, 0, 1);
+		if(stream == 0)
+			return;
+		voiceSlot[voice] = slot;
+		voiceStream[voice] = stream;
+		voiceStart[voice] = now;
+		voiceEnd[voice] = now + SOUNDS[slot][3];
+	}
+
+}
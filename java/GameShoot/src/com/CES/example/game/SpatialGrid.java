@@ -0,0 +1,233 @@
+package com.CES.example.game;
+
+/**
+ * 均匀网格。把屏幕分成CELL_SIZE大小的格子，每个元素按它的矩形放入覆盖到的
+ * 所有格子中，查询时只返回与查询矩形在同一个格子中的元素，用于碰撞检测的
+ * 粗筛，只有离得近的元素才需要做真正的碰撞检测。
+ * <P/>
+ * 元素只是一个序号，由使用者定义，例如敌人在列表中的序号。每个格子是一个
+ * 用数组实现的链表，clear()之后重新insert()就是重建网格。屏幕外的部分算在
+ * 边上的格子里，所以屏幕外的元素也不会漏掉。
+ * <P/>
+ * query()的结果去掉了重复的序号并从小到大排列，使用者按这个顺序处理，
+ * 结果与按序号遍历所有元素是一样的。数组容量不够时会加倍，之后就一直重用。
+ * <P/>
+ * 网格记录查询返回的候选数和使用者报告的命中数，用于监控粗筛的效果。
+ *
+ * @author Hong
+ *
+ */
+public class SpatialGrid {
+
+	// 格子大小，大约是中型敌人的大小。
+	public final static int CELL_SIZE = 64;
+
+	private final int columns;
+	private final int rows;
+	// 每个格子链表的第一项，-1表示空。
+	private final int[] heads;
+
+	// 链表项
+	private int entryCount;
+	private int[] entryIds;
+	private int[] entryNext;
+
+	// 查询结果，以及去重用的标记。
+	private int resultCount;
+	private int[] results;
+	private int[] stamps;
+	private int stamp;
+
+	// 统计
+	private int pairs;
+	private int hits;
+
+	/**
+	 * 构造函数。
+	 *
+	 * @param width 宽，一般是屏宽
+	 * @param height 高，一般是屏高
+	 * @param capacity 序号的初始上限
+	 */
+	public SpatialGrid(int width, int height, int capacity) {
+		columns = Math.max(1, (width + CELL_SIZE - 1) / CELL_SIZE);
+		rows = Math.max(1, (height + CELL_SIZE - 1) / CELL_SIZE);
+		heads = new int[columns * rows];
+		for(int i = 0; i < heads.length; i++)
+			heads[i] = -1;
+
+		// 小元素最多跨2x2个格子
+		entryIds = new int[capacity * 4];
+		entryNext = new int[capacity * 4];
+		results = new int[capacity];
+		stamps = new int[capacity];
+	}
+
+	/**
+	 * 清除所有元素。
+	 */
+	public void clear() {
+		for(int i = 0; i < heads.length; i++)
+			heads[i] = -1;
+		entryCount = 0;
+	}
+
+	/**
+	 * 放入一个元素。矩形的右边和下边不包括在内，空的矩形不会被放入。
+	 *
+	 * @param id 元素序号，不能小于0。
+	 * @param left 矩形左边
+	 * @param top 矩形上边
+	 * @param right 矩形右边
+	 * @param bottom 矩形下边
+	 */
+	public void insert(int id, int left, int top, int right, int bottom) {
+		if(right <= left || bottom <= top)
+			return;
+		if(id >= stamps.length)
+			growIds(id + 1);
+
+		int c0 = column(left);
+		int c1 = column(right - 1);
+		int r0 = row(top);
+		int r1 = row(bottom - 1);
+		for(int r = r0; r <= r1; r++) {
+			for(int c = c0; c <= c1; c++) {
+				if(entryCount == entryIds.length)
+					growEntries();
+				int cell = r * columns + c;
+				entryIds[entryCount] = id;
+				entryNext[entryCount] = heads[cell];
+				heads[cell] = entryCount++;
+			}
+		}
+	}
+
+	/**
+	 * 查询与一个矩形在同一个格子中的元素。结果通过get()获取，
+	 * 去掉了重复的序号并从小到大排列，到下一次查询前有效。
+	 *
+	 * @param left 矩形左边
+	 * @param top 矩形上边
+	 * @param right 矩形右边
+	 * @param bottom 矩形下边
+	 * @return 结果数
+	 */
+	public int query(int left, int top, int right, int bottom) {
+		resultCount = 0;
+		if(right <= left || bottom <= top)
+			return 0;
+		if(++stamp == 0) {
+			// 标记用完一轮，全部清零重新开始。
+			for(int i = 0; i < stamps.length; i++)
+				stamps[i] = 0;
+			stamp = 1;
+		}
+
+		int c0 = column(left);
+		int c1 = column(right - 1);
+		int r0 = row(top);
+		int r1 = row(bottom - 1);
+		for(int r = r0; r <= r1; r++) {
+			for(int c = c0; c <= c1; c++) {
+				for(int e = heads[r * columns + c]; e >= 0; e = entryNext[e]) {
+					int id = entryIds[e];
+					if(stamps[id] == stamp)
+						continue;
+					stamps[id] = stamp;
+					// 插入排序，候选一般只有几个。
+					int n = resultCount++;
+					while(n > 0 && results[n - 1] > id) {
+						results[n] = results[n - 1];
+						n--;
+					}
+					results[n] = id;
+				}
+			}
+		}
+		pairs += resultCount;
+		return resultCount;
+	}
+
+	/**
+	 * 获取最近一次查询的结果。
+	 *
+	 * @param i 结果序号
+	 * @return 元素序号
+	 */
+	public int get(int i) {
+		return results[i];
+	}
+
+	/**
+	 * 报告命中，即候选中真正碰撞的次数。
+	 *
+	 * @param n 命中次数
+	 */
+	public void addHits(int n) {
+		hits += n;
+	}
+
+	/**
+	 * 获取查询返回的候选总数，即交给精确碰撞检测的元素对数。
+	 *
+	 * @return 候选数
+	 */
+	public int getPairsTested() {
+		return pairs;
+	}
+
+	/**
+	 * 获取报告的命中总数。
+	 *
+	 * @return 命中数
+	 */
+	public int getHits() {
+		return hits;
+	}
+
+	/**
+	 * 清空统计。
+	 */
+	public void resetStats() {
+		pairs = 0;
+		hits = 0;
+	}
+
+	private int column(int x) {
+		int c = (x < 0)? 0 : x / CELL_SIZE;
+		return (c < columns)? c : columns - 1;
+	}
+
+	private int row(int y) {
+		int r = (y < 0)? 0 : y / CELL_SIZE;
+		return (r < rows)? r : rows - 1;
+	}
+
+	/**
+	 * 链表项数组容量加倍。
+	 */
+	private void growEntries() {
+		int n = Math.max(16, entryIds.length * 2);
+		entryIds = copyOf(entryIds, n, entryCount);
+		entryNext = copyOf(entryNext, n, entryCount);
+	}
+
+	/**
+	 * 扩大序号的上限，至少到n。
+	 *
+	 * @param n 序号上限
+	 */
+	private void growIds(int n) {
+		int m = Math.max(n, stamps.length * 2);
+		stamps = copyOf(stamps, m, stamps.length);
+		results = new int[m];
+	}
+
+	private int[] copyOf(int[] src, int n, int count) {
+		int[] dst = new int[n];
+		System.arraycopy(src, 0, dst, 0, count);
+		return dst;
+	}
+
+}
@@ -0,0 +1,56 @@
+package com.CES.example.game;
+
+/**
+ * 生成系统。游戏时间每经过一个周期就调用一次Spawner创建实体。
+ * 周期按GameContext中的游戏时间计算，所以同一个随机种子总是在同样的
+ * 逻辑帧生成同样的实体。
+ *
+ * @author Hong
+ *
+ */
+public class SpawnSystem {
+
+	private final int interval;
+	private final Spawner spawner;
+
+	/**
+	 * 构造函数。
+	 *
+	 * @param interval 周期(毫秒)，应该是逻辑帧时间的整数倍。
+	 * @param spawner 创建实体
+	 */
+	public SpawnSystem(int interval, Spawner spawner) {
+		if(interval <= 0)
+			throw new IllegalArgumentException("Interval must be positive.");
+		this.interval = interval;
+		this.spawner = spawner;
+	}
+
+	/**
+	 * 推进一个逻辑帧，在游戏时间更新之后调用。
+	 *
+	 * @param entities 实体
+	 * @param context 游戏上下文
+	 * @return 到了周期返回true。
+	 */
+	public boolean update(Entities entities, GameContext context) {
+		if(context.time % interval != 0)
+			return false;
+		spawner.spawn(entities, context);
+		return true;
+	}
+
+	/**
+	 * 实体的创建者。
+	 */
+	public interface Spawner {
+		/**
+		 * 创建实体。
+		 *
+		 * @param entities 实体
+		 * @param context 游戏上下文
+		 */
+		void spawn(Entities entities, GameContext context);
+	}
+
+}
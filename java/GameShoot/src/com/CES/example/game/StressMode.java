@@ -0,0 +1,106 @@
+package com.CES.example.game;
+
+/**
+ * 压力模式。用于找出碰撞检测，绘制和清除在多少敌人和子弹时开始跟不上。
+ * <P/>
+ * 设置到GameWorld后，刷新敌人时不再按游戏时间决定创建的机率和每种敌人的
+ * 最大数量，而是每次刷新都尝试创建spawnsPerRefresh个敌人，直到总数达到
+ * maxEnemys；敌人的速度最慢，在屏幕上停留得最久。玩家每firePeriod个逻辑帧
+ * 就发射guns颗子弹，子弹均匀分布在整个屏幕宽度上，一排放不下时分成几排。
+ * 玩家不会被撞死，碰撞检测仍然照常进行。每一局开始时随机数都会重设为同一
+ * 个种子，所以同样的设置总是得到同样的过程。
+ * <P/>
+ * EnemyPool只按正常游戏中同时存在的敌人数设置容量，压力模式中敌人多得多，
+ * 回收池装不下的敌人被丢弃，取不到时又创建新的，所以每一局都会创建和丢弃
+ * 成千上万个Enemy，测到的耗时也包括这部分分配和垃圾回收。
+ * <P/>
+ * 无界面运行见benchmark中的StressHarness。在设备上运行时用Intent的
+ * EXTRA_MAX_ENEMYS指定敌人数量，比如：
+ * <pre>
+ * adb shell am start -n com.CES.example.game/.MainActivity --ei stress 1000
+ * </pre>
+ * 再按菜单键打开FrameProfiler查看各阶段的耗时。
+ *
+ * @author Hong
+ *
+ */
+public class StressMode {
+
+	// Intent中敌人数量的名称
+	public final static String EXTRA_MAX_ENEMYS = "stress";
+	public final static long SEED = 20140601L;
+
+	final int maxEnemys;
+	final int spawnsPerRefresh;
+	final int firePeriod;
+	final int guns;
+
+	/**
+	 * 构造函数。
+	 *
+	 * @param maxEnemys 敌人的最大数量
+	 * @param spawnsPerRefresh 每次刷新时创建的敌人数
+	 * @param firePeriod 玩家开火的间隔(逻辑帧)
+	 * @param guns 玩家每次发射的子弹数
+	 */
+	public StressMode(int maxEnemys, int spawnsPerRefresh, int firePeriod, 
+			int guns) {
+		if(maxEnemys <= 0 || spawnsPerRefresh <= 0 || firePeriod <= 0 || guns <= 0)
+			throw new IllegalArgumentException("Stress settings must be positive.");
+		this.maxEnemys = maxEnemys;
+		this.spawnsPerRefresh = spawnsPerRefresh;
+		this.firePeriod = firePeriod;
+		this.guns = guns;
+	}
+
+	/**
+	 * 创建默认设置的压力模式：每次刷新创建maxEnemys / 8个敌人，至少32个，
+	 * 玩家每个逻辑帧发射maxEnemys / 2颗子弹，至少16颗。敌人被击毁得很快，
+	 * 创建得也要一样快才能保持在上限附近；子弹飞出屏幕大约要5个逻辑帧，
+	 * 所以屏幕上的子弹数与敌人数一起增长，敌人上千时子弹也有上千颗。
+	 *
+	 * @param maxEnemys 敌人的最大数量
+	 * @return 压力模式
+	 */
+	public static StressMode create(int maxEnemys) {
+		return new StressMode(maxEnemys, Math.max(32, maxEnemys / 8), 1, 
+				Math.max(16, maxEnemys / 2));
+	}
+
+	/**
+	 * 获取敌人的最大数量。
+	 *
+	 * @return 敌人的最大数量
+	 */
+	public int getMaxEnemys() {
+		return maxEnemys;
+	}
+
+	/**
+	 * 获取每次刷新时创建的敌人数。
+	 *
+	 * @return 每次刷新时创建的敌人数
+	 */
+	public int getSpawnsPerRefresh() {
+		return spawnsPerRefresh;
+	}
+
+	/**
+	 * 获取玩家开火的间隔。
+	 *
+	 * @return 玩家开火的间隔(逻辑帧)
+	 */
+	public int getFirePeriod() {
+		return firePeriod;
+	}
+
+	/**
+	 * 获取玩家每次发射的子弹数。
+	 *
+	 * @return 玩家每次发射的子弹数
+	 */
+	public int getGuns() {
+		return guns;
+	}
+
+}
@@ -0,0 +1,301 @@
+package com.CES.example.game;
+
+/**
+ * 按X区间排序的粗筛。敌人只会向下移动，子弹只会向上移动，X坐标在出现之后
+ * 就不会再变，所以敌人碰撞范围的X区间是不变的，按左边排好序之后，
+ * 只有敌人出现和消失时才需要调整。
+ * <P/>
+ * sync()与敌人列表同步：列表的顺序是稳定的，消失的敌人被移出，新的敌人加在
+ * 末尾，所以可以把上一次的序号对应到现在的序号。已排好的区间去掉消失的，
+ * 其余的保持顺序，新的敌人用插入排序放到合适的位置，每一帧只需要很少的移动。
+ * <P/>
+ * query()用二分查找找到左边小于查询右边的区间，再向左扫描，敌人碰撞范围
+ * 最宽也只有maxWidth，左边离得更远的区间不可能重叠。结果按列表序号从小到大
+ * 排列，与SpatialGrid一样，使用者按这个顺序处理就与遍历整个列表一样。
+ * <P/>
+ * Y坐标会变，不参与排序，扫描到X区间重叠的敌人时再用它当前的碰撞范围排除
+ * 上下离得远的，剩下的才放入结果。记录查询返回的候选数和使用者报告的命中数。
+ *
+ * @author Hong
+ *
+ */
+public class SweepAndPrune {
+
+	private final static int INIT_CAPACITY = 32;
+
+	// 按左边排序的区间，以及对应的列表序号。
+	private int size;
+	private Enemy[] items;
+	private int[] ids;
+	private int[] lefts;
+	private int[] rights;
+	// 最宽的区间
+	private int maxWidth;
+
+	// 上一次同步时的列表，用于对应序号。
+	private Object[] prev;
+	private int prevCount;
+	private int[] remap;
+	private boolean[] present;
+
+	// 查询结果
+	private int resultCount;
+	private int[] results;
+
+	// 统计
+	private int pairs;
+	private int hits;
+	private int shifts;
+
+	/**
+	 * 构造函数。
+	 */
+	public SweepAndPrune() {
+		items = new Enemy[INIT_CAPACITY];
+		ids = new int[INIT_CAPACITY];
+		lefts = new int[INIT_CAPACITY];
+		rights = new int[INIT_CAPACITY];
+		prev = new Object[INIT_CAPACITY];
+		remap = new int[INIT_CAPACITY];
+		present = new boolean[INIT_CAPACITY];
+		results = new int[INIT_CAPACITY];
+	}
+
+	/**
+	 * 与敌人列表同步。只有存活并且可见的敌人会被放入。
+	 *
+	 * @param enemys 敌人列表
+	 */
+	public void sync(EntityList<Enemy> enemys) {
+		int n = enemys.size();
+		if(n > present.length) {
+			int m = Math.max(n, present.length * 2);
+			present = new boolean[m];
+			results = new int[m];
+		}
+
+		// 上一次的序号对应到现在的序号，消失的为-1。
+		int j = 0;
+		for(int p = 0; p < prevCount; p++) {
+			if(j < n && enemys.get(j) == prev[p])
+				remap[p] = j++;
+			else
+				remap[p] = -1;
+		}
+
+		// 去掉消失的，死亡的和区间变了的(被回收后又出现的敌人)，保持顺序。
+		for(int i = 0; i < n; i++)
+			present[i] = false;
+		int m = 0;
+		maxWidth = 0;
+		for(int k = 0; k < size; k++) {
+			int id = remap[ids[k]];
+			if(id < 0)
+				continue;
+			Enemy e = enemys.get(id);
+			if(!e.isAlive() || !e.isVisible() 
+					|| e.getCollisionLeft() != lefts[k] 
+					|| e.getCollisionRight() != rights[k])
+				continue;
+			items[m] = e;
+			ids[m] = id;
+			lefts[m] = lefts[k];
+			rights[m] = rights[k];
+			present[id] = true;
+			maxWidth = Math.max(maxWidth, rights[m] - lefts[m]);
+			m++;
+		}
+		for(int k = m; k < size; k++)
+			items[k] = null;
+		size = m;
+
+		// 新的敌人用插入排序放入
+		for(int i = 0; i < n; i++) {
+			Enemy e = enemys.get(i);
+			if(!present[i] && e.isAlive() && e.isVisible())
+				insert(e, i, e.getCollisionLeft(), e.getCollisionRight());
+		}
+
+		// 保存这一次的列表
+		if(n > prev.length) {
+			int c = Math.max(n, prev.length * 2);
+			prev = new Object[c];
+			remap = new int[c];
+		}
+		for(int i = 0; i < n; i++)
+			prev[i] = enemys.get(i);
+		for(int i = n; i < prevCount; i++)
+			prev[i] = null;
+		prevCount = n;
+	}
+
+	/**
+	 * 查询碰撞范围与一个矩形重叠的敌人。结果通过get()获取，按列表序号从小到大
+	 * 排列，到下一次查询前有效。矩形的右边和下边不包括在内。
+	 *
+	 * @param left 矩形左边
+	 * @param top 矩形上边
+	 * @param right 矩形右边
+	 * @param bottom 矩形下边
+	 * @return 结果数
+	 */
+	public int query(int left, int top, int right, int bottom) {
+		resultCount = query(left, top, right, bottom, results);
+		pairs += resultCount;
+		return resultCount;
+	}
+
+	/**
+	 * 查询碰撞范围与一个矩形重叠的敌人，结果放入调用者的数组。只读取排好的
+	 * 区间和敌人的位置，不修改任何内容，也不记录统计，所以在两次sync()之间
+	 * 可以由多个线程同时调用。
+	 *
+	 * @param left 矩形左边
+	 * @param top 矩形上边
+	 * @param right 矩形右边
+	 * @param bottom 矩形下边
+	 * @param results 结果，按列表序号从小到大排列，长度不能小于size()。
+	 * @return 结果数
+	 */
+	public int query(int left, int top, int right, int bottom, int[] results) {
+		int count = 0;
+		// 第一个左边不小于right的区间
+		int lo = 0, hi = size;
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(lefts[mid] < right)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		for(int k = lo - 1; k >= 0 && lefts[k] + maxWidth > left; k--) {
+			if(rights[k] <= left)
+				continue;
+			Enemy e = items[k];
+			if(e.getCollisionTop() >= bottom || e.getCollisionBottom() <= top)
+				continue;
+			int id = ids[k];
+			int n = count++;
+			while(n > 0 && results[n - 1] > id) {
+				results[n] = results[n - 1];
+				n--;
+			}
+			results[n] = id;
+		}
+		return count;
+	}
+
+	/**
+	 * 获取最近一次查询的结果。
+	 *
+	 * @param i 结果序号
+	 * @return 敌人在列表中的序号
+	 */
+	public int get(int i) {
+		return results[i];
+	}
+
+	/**
+	 * 报告由query(int, int, int, int, int[])得到的候选数。
+	 *
+	 * @param n 候选数
+	 */
+	public void addPairsTested(int n) {
+		pairs += n;
+	}
+
+	/**
+	 * 报告命中，即候选中真正碰撞的次数。
+	 *
+	 * @param n 命中次数
+	 */
+	public void addHits(int n) {
+		hits += n;
+	}
+
+	/**
+	 * 放入的敌人数。
+	 *
+	 * @return 敌人数
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 获取查询返回的候选总数，即交给精确碰撞检测的元素对数。
+	 *
+	 * @return 候选数
+	 */
+	public int getPairsTested() {
+		return pairs;
+	}
+
+	/**
+	 * 获取报告的命中总数。
+	 *
+	 * @return 命中数
+	 */
+	public int getHits() {
+		return hits;
+	}
+
+	/**
+	 * 获取插入排序移动区间的总次数，用于确认同步是增量的。
+	 *
+	 * @return 移动次数
+	 */
+	public int getShifts() {
+		return shifts;
+	}
+
+	/**
+	 * 清空统计。
+	 */
+	public void resetStats() {
+		pairs = 0;
+		hits = 0;
+		shifts = 0;
+	}
+
+	/**
+	 * 用插入排序放入一个区间，左边相同时放在后面。
+	 *
+	 * @param e 敌人
+	 * @param id 列表序号
+	 * @param left 左边
+	 * @param right 右边
+	 */
+	private void insert(Enemy e, int id, int left, int right) {
+		if(size == ids.length) {
+			int n = ids.length * 2;
+			Enemy[] newItems = new Enemy[n];
+			System.arraycopy(items, 0, newItems, 0, size);
+			items = newItems;
+			ids = copyOf(ids, n);
+			lefts = copyOf(lefts, n);
+			rights = copyOf(rights, n);
+		}
+		int k = size++;
+		while(k > 0 && lefts[k - 1] > left) {
+			items[k] = items[k - 1];
+			ids[k] = ids[k - 1];
+			lefts[k] = lefts[k - 1];
+			rights[k] = rights[k - 1];
+			k--;
+			shifts++;
+		}
+		items[k] = e;
+		ids[k] = id;
+		lefts[k] = left;
+		rights[k] = right;
+		maxWidth = Math.max(maxWidth, right - left);
+	}
+
+	private int[] copyOf(int[] src, int n) {
+		int[] dst = new int[n];
+		System.arraycopy(src, 0, dst, 0, size);
+		return dst;
+	}
+
+}
@@ -0,0 +1,252 @@
+package com.CES.example.game;
+
+import javax.microedition.lcdui.game.Sprite;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+/**
+ * 游戏世界快照。逻辑线程在每个逻辑帧结束时把需要绘制的内容复制到快照里，
+ * 绘图线程只根据快照绘制，不会访问正在被逻辑线程修改的游戏元素。
+ * <P/>
+ * 每个精灵只记录图片，当前帧在图片中的位置，大小，位置和每个逻辑帧的垂直速度，
+ * 速度用于绘制时的插值。数组容量不够时会加倍，之后就可以一直重用。
+ * <P/>
+ * 按键与对话框由逻辑线程显示，隐藏，移动并推进动态效果，快照中记录它们动态效果
+ * 的帧，位置和文字，绘图线程按记录的状态绘制，不读取这些会被逻辑线程修改的状态。
+ *
+ * @author Hong
+ *
+ */
+public class WorldSnapshot {
+
+	private final static int INIT_CAPACITY = 64;
+	private final static int INIT_WIDGETS = 16;
+
+	int state;
+	int score;
+	int bombCount;
+	int background;
+	long time;
+
+	private int count;
+	private Bitmap[] images;
+	private int[] imageX;
+	private int[] imageY;
+	private int[] width;
+	private int[] height;
+	private int[] x;
+	private int[] y;
+	private int[] speed;
+
+	// 按键与对话框，按绘制的顺序。
+	private int widgetCount;
+	private Widget[] widgets;
+	private int[] widgetStep;
+	private int[] widgetX;
+	private int[] widgetY;
+	private String[] widgetText;
+
+	private Rect rectSrc;
+	private Rect rectDst;
+
+	/**
+	 * 构造函数。
+	 */
+	public WorldSnapshot() {
+		images = new Bitmap[INIT_CAPACITY];
+		imageX = new int[INIT_CAPACITY];
+		imageY = new int[INIT_CAPACITY];
+		width = new int[INIT_CAPACITY];
+		height = new int[INIT_CAPACITY];
+		x = new int[INIT_CAPACITY];
+		y = new int[INIT_CAPACITY];
+		speed = new int[INIT_CAPACITY];
+		widgets = new Widget[INIT_WIDGETS];
+		widgetStep = new int[INIT_WIDGETS];
+		widgetX = new int[INIT_WIDGETS];
+		widgetY = new int[INIT_WIDGETS];
+		widgetText = new String[INIT_WIDGETS];
+		rectSrc = new Rect();
+		rectDst = new Rect();
+	}
+
+	/**
+	 * 清空快照中的精灵，按键与对话框。
+	 */
+	public void clear() {
+		for(int i = 0; i < count; i++)
+			images[i] = null;
+		count = 0;
+		for(int i = 0; i < widgetCount; i++) {
+			widgets[i] = null;
+			widgetText[i] = null;
+		}
+		widgetCount = 0;
+	}
+
+	/**
+	 * 加入一个精灵。不可见的精灵会被忽略。
+	 *
+	 * @param s 精灵
+	 * @param v 每个逻辑帧的垂直速度
+	 */
+	public void add(Sprite s, int v) {
+		if(!s.isVisible())
+			return;
+
+		add(s.getImage(), s.getFrameImageX(), s.getFrameImageY(), 
+				s.getWidth(), s.getHeight(), s.getX(), s.getY(), v);
+	}
+
+	/**
+	 * 加入一个图片的一部分，用于不是Sprite的元素，比如子弹。
+	 *
+	 * @param image 图片
+	 * @param frameX 帧在图片中的X坐标
+	 * @param frameY 帧在图片中的Y坐标
+	 * @param w 宽
+	 * @param h 高
+	 * @param posX 绘制的X坐标
+	 * @param posY 绘制的Y坐标
+	 * @param v 每个逻辑帧的垂直速度
+	 */
+	public void add(Bitmap image, int frameX, int frameY, int w, int h, 
+			int posX, int posY, int v) {
+		if(count == images.length)
+			grow();
+		images[count] = image;
+		imageX[count] = frameX;
+		imageY[count] = frameY;
+		width[count] = w;
+		height[count] = h;
+		x[count] = posX;
+		y[count] = posY;
+		speed[count] = v;
+		count++;
+	}
+
+	/**
+	 * 绘制快照中的所有精灵。
+	 *
+	 * @param canvas 画布
+	 * @param alpha 插值比例，精灵会沿垂直速度向前移动speed * alpha。
+	 */
+	public void paint(Canvas canvas, float alpha) {
+		for(int i = 0; i < count; i++) {
+			int dy = (int) (speed[i] * alpha);
+			rectSrc.left = imageX[i];
+			rectSrc.top = imageY[i];
+			rectSrc.right = imageX[i] + width[i];
+			rectSrc.bottom = imageY[i] + height[i];
+			rectDst.left = x[i];
+			rectDst.top = y[i] + dy;
+			rectDst.right = x[i] + width[i];
+			rectDst.bottom = y[i] + dy + height[i];
+			canvas.drawBitmap(images[i], rectSrc, rectDst, null);
+		}
+	}
+
+	/**
+	 * 加入一个按键或对话框的状态，只能由逻辑线程调用。
+	 *
+	 * @param widget 按键或对话框
+	 * @param step 动态效果的帧
+	 * @param posX X坐标
+	 * @param posY Y坐标
+	 * @param text 文字，可以为null。
+	 */
+	public void addWidget(Widget widget, int step, int posX, int posY, 
+			String text) {
+		if(widgetCount == widgets.length)
+			growWidgets();
+		widgets[widgetCount] = widget;
+		widgetStep[widgetCount] = step;
+		widgetX[widgetCount] = posX;
+		widgetY[widgetCount] = posY;
+		widgetText[widgetCount] = text;
+		widgetCount++;
+	}
+
+	/**
+	 * 按记录的状态绘制快照中的按键与对话框。
+	 *
+	 * @param canvas 画布
+	 */
+	public void paintWidgets(Canvas canvas) {
+		for(int i = 0; i < widgetCount; i++) {
+			widgets[i].paint(canvas, widgetStep[i], 
+					widgetX[i], widgetY[i], widgetText[i]);
+		}
+	}
+
+	/**
+	 * 获取精灵数量。
+	 *
+	 * @return 精灵数量
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * 数组容量加倍。
+	 */
+	private void grow() {
+		int n = images.length * 2;
+		Bitmap[] newImages = new Bitmap[n];
+		System.arraycopy(images, 0, newImages, 0, count);
+		images = newImages;
+		imageX = copyOf(imageX, n);
+		imageY = copyOf(imageY, n);
+		width = copyOf(width, n);
+		height = copyOf(height, n);
+		x = copyOf(x, n);
+		y = copyOf(y, n);
+		speed = copyOf(speed, n);
+	}
+
+	/**
+	 * 按键与对话框的数组容量加倍。
+	 */
+	private void growWidgets() {
+		int n = widgets.length * 2;
+		Widget[] newWidgets = new Widget[n];
+		System.arraycopy(widgets, 0, newWidgets, 0, widgetCount);
+		widgets = newWidgets;
+		String[] newText = new String[n];
+		System.arraycopy(widgetText, 0, newText, 0, widgetCount);
+		widgetText = newText;
+		widgetStep = copyOf(widgetStep, n, widgetCount);
+		widgetX = copyOf(widgetX, n, widgetCount);
+		widgetY = copyOf(widgetY, n, widgetCount);
+	}
+
+	private int[] copyOf(int[] src, int n) {
+		return copyOf(src, n, count);
+	}
+
+	private int[] copyOf(int[] src, int n, int length) {
+		int[] dst = new int[n];
+		System.arraycopy(src, 0, dst, 0, length);
+		return dst;
+	}
+
+	/**
+	 * 按键与对话框。它们的状态由逻辑线程修改，绘制时只使用快照中记录的状态。
+	 */
+	public interface Widget {
+		/**
+		 * 按记录的状态绘制，只在绘图线程中调用。
+		 *
+		 * @param canvas 画布
+		 * @param step 动态效果的帧
+		 * @param x X坐标
+		 * @param y Y坐标
+		 * @param text 文字
+		 */
+		void paint(Canvas canvas, int step, int x, int y, String text);
+	}
+
+}
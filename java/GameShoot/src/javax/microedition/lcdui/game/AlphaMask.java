@@ -0,0 +1,296 @@
+package javax.microedition.lcdui.game;
+
+import java.util.WeakHashMap;
+
+import android.graphics.Bitmap;
+
+/**
+ * 1-bit opacity masks for the frames of a sprite sheet, used by
+ * {@link Sprite#collidesWith(Sprite, boolean)} for pixel-level collision
+ * detection without reading pixels back from the image.
+ * <p>
+ * A mask is created once per image and frame size and shared by every
+ * Sprite using that sheet. Masks are looked up by image and hold no
+ * reference to it, so they are dropped together with the sheet when the
+ * images are reloaded. The untransformed masks of all frames are built
+ * from the image when the mask is created; the masks for other transforms
+ * are derived from them the first time they are needed. Each mask is in
+ * painter orientation: row <code>r</code> of a frame shown with a transform
+ * is the row <code>r</code> of the Sprite on screen.
+ * <p>
+ * A mask row is packed into longs, bit <code>i</code> of word
+ * <code>j</code> being column <code>64 * j + i</code>. Opaque pixels are
+ * those with a non-zero alpha, as in the pixel-by-pixel test. Overlap of
+ * two masks is tested 64 columns at a time with a single AND.
+ */
+final class AlphaMask {
+
+	/**
+	 * The number of transforms, masks are kept for each of them.
+	 */
+	private static final int TRANSFORMS = 8;
+
+	/**
+	 * Bit mask for channel value in ARGB pixel.
+	 */
+	private static final int ALPHA_BITMASK = 0xff000000;
+
+	/**
+	 * Masks created so far for each image, guarded by the class lock. The
+	 * images are held weakly.
+	 */
+	private static final WeakHashMap<Bitmap, AlphaMask[]> cache = 
+			new WeakHashMap<Bitmap, AlphaMask[]>();
+
+	private final int frameWidth;
+	private final int frameHeight;
+
+	/**
+	 * masks[frame][transform], null until built
+	 */
+	private final long[][][] masks;
+
+	/**
+	 * Returns the masks for an image split into frames of the given size,
+	 * creating them if no Sprite has used this sheet yet.
+	 * 
+	 * @param image
+	 *            the source image
+	 * @param imageW
+	 *            width, in pixels, of the image
+	 * @param imageH
+	 *            height, in pixels, of the image
+	 * @param fWidth
+	 *            width, in pixels, of the individual raw frames
+	 * @param fHeight
+	 *            height, in pixels, of the individual raw frames
+	 * @return the masks
+	 */
+	static synchronized AlphaMask forImage(Bitmap image, int imageW,
+			int imageH, int fWidth, int fHeight) {
+		AlphaMask[] sizes = cache.get(image);
+		int n = (sizes != null) ? sizes.length : 0;
+		for (int i = 0; i < n; i++) {
+			AlphaMask m = sizes[i];
+			if (m.frameWidth == fWidth && m.frameHeight == fHeight) {
+				return m;
+			}
+		}
+
+		int[] argb = new int[imageW * imageH];
+		image.getPixels(argb, 0, imageW, 0, 0, imageW, imageH);
+		AlphaMask m = new AlphaMask(argb, imageW, imageH, fWidth, fHeight);
+		AlphaMask[] newSizes = new AlphaMask[n + 1];
+		if (n > 0) {
+			System.arraycopy(sizes, 0, newSizes, 0, n);
+		}
+		newSizes[n] = m;
+		cache.put(image, newSizes);
+		return m;
+	}
+
+	/**
+	 * Builds the untransformed masks of all frames from the pixels of an
+	 * image. Frames are numbered left to right, then top to bottom, as in
+	 * Sprite.
+	 * 
+	 * @param argb
+	 *            the ARGB pixels of the image, row by row
+	 * @param imageW
+	 *            width, in pixels, of the image
+	 * @param imageH
+	 *            height, in pixels, of the image
+	 * @param fWidth
+	 *            width, in pixels, of the individual raw frames
+	 * @param fHeight
+	 *            height, in pixels, of the individual raw frames
+	 */
+	AlphaMask(int[] argb, int imageW, int imageH, int fWidth, int fHeight) {
+		this.frameWidth = fWidth;
+		this.frameHeight = fHeight;
+
+		int columns = imageW / fWidth;
+		int frames = columns * (imageH / fHeight);
+		masks = new long[frames][TRANSFORMS][];
+
+		int stride = getStride(Sprite.TRANS_NONE);
+		for (int f = 0; f < frames; f++) {
+			int left = (f % columns) * fWidth;
+			int top = (f / columns) * fHeight;
+			long[] mask = new long[stride * fHeight];
+			for (int r = 0; r < fHeight; r++) {
+				int src = (top + r) * imageW + left;
+				int dst = r * stride;
+				for (int c = 0; c < fWidth; c++) {
+					if ((argb[src + c] & ALPHA_BITMASK) != 0) {
+						mask[dst + (c >>> 6)] |= 1L << c;
+					}
+				}
+			}
+			masks[f][Sprite.TRANS_NONE] = mask;
+		}
+	}
+
+	/**
+	 * Returns the number of longs per row of a mask shown with the given
+	 * transform.
+	 * 
+	 * @param transform
+	 *            the transform
+	 * @return the row length in longs
+	 */
+	int getStride(int transform) {
+		int w = isRotated(transform) ? frameHeight : frameWidth;
+		return (w + 63) >>> 6;
+	}
+
+	/**
+	 * Returns true if the transform swaps the width and height of a frame.
+	 */
+	private static boolean isRotated(int transform) {
+		return transform == Sprite.TRANS_ROT90
+				|| transform == Sprite.TRANS_ROT270
+				|| transform == Sprite.TRANS_MIRROR_ROT90
+				|| transform == Sprite.TRANS_MIRROR_ROT270;
+	}
+
+	/**
+	 * Returns the mask of a raw frame shown with the given transform,
+	 * deriving it from the untransformed mask the first time.
+	 * 
+	 * @param frame
+	 *            the raw frame number
+	 * @param transform
+	 *            the transform
+	 * @return the mask, rows of {@link #getStride} longs
+	 */
+	synchronized long[] getMask(int frame, int transform) {
+		long[] mask = masks[frame][transform];
+		if (mask == null) {
+			mask = transform(masks[frame][Sprite.TRANS_NONE], transform);
+			masks[frame][transform] = mask;
+		}
+		return mask;
+	}
+
+	/**
+	 * Maps every pixel of a transformed frame back to the untransformed
+	 * frame, the same way Sprite.getImageTopLeftX and getImageTopLeftY map
+	 * painter coordinates to the source image.
+	 */
+	private long[] transform(long[] src, int transform) {
+		boolean rotated = isRotated(transform);
+		int w = rotated ? frameHeight : frameWidth;
+		int h = rotated ? frameWidth : frameHeight;
+		int srcStride = getStride(Sprite.TRANS_NONE);
+		int stride = getStride(transform);
+		long[] mask = new long[stride * h];
+
+		for (int r = 0; r < h; r++) {
+			for (int c = 0; c < w; c++) {
+				int sx = 0, sy = 0;
+				switch (transform) {
+				case Sprite.TRANS_MIRROR:
+					sx = w - 1 - c;
+					sy = r;
+					break;
+				case Sprite.TRANS_ROT180:
+					sx = w - 1 - c;
+					sy = h - 1 - r;
+					break;
+				case Sprite.TRANS_MIRROR_ROT180:
+					sx = c;
+					sy = h - 1 - r;
+					break;
+				case Sprite.TRANS_ROT90:
+					sx = r;
+					sy = w - 1 - c;
+					break;
+				case Sprite.TRANS_MIRROR_ROT90:
+					sx = h - 1 - r;
+					sy = w - 1 - c;
+					break;
+				case Sprite.TRANS_ROT270:
+					sx = h - 1 - r;
+					sy = c;
+					break;
+				case Sprite.TRANS_MIRROR_ROT270:
+					sx = r;
+					sy = c;
+					break;
+				default:
+					sx = c;
+					sy = r;
+					break;
+				}
+				if ((src[sy * srcStride + (sx >>> 6)] & (1L << sx)) != 0) {
+					mask[r * stride + (c >>> 6)] |= 1L << c;
+				}
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Tests whether two masks have an opaque pixel in common within a
+	 * region. The region is given by its top left corner in each mask and
+	 * its size, and must lie inside both masks.
+	 * 
+	 * @param mask1
+	 *            the first mask
+	 * @param stride1
+	 *            row length of the first mask, in longs
+	 * @param x1
+	 *            left of the region in the first mask
+	 * @param y1
+	 *            top of the region in the first mask
+	 * @param mask2
+	 *            the second mask
+	 * @param stride2
+	 *            row length of the second mask, in longs
+	 * @param x2
+	 *            left of the region in the second mask
+	 * @param y2
+	 *            top of the region in the second mask
+	 * @param width
+	 *            width of the region
+	 * @param height
+	 *            height of the region
+	 * @return true if an opaque pixel of one mask lies on an opaque pixel
+	 *         of the other
+	 */
+	static boolean overlaps(long[] mask1, int stride1, int x1, int y1,
+			long[] mask2, int stride2, int x2, int y2, int width, int height) {
+		for (int r = 0; r < height; r++) {
+			int row1 = (y1 + r) * stride1;
+			int row2 = (y2 + r) * stride2;
+			for (int c = 0; c < width; c += 64) {
+				long bits = word(mask1, row1, stride1, x1 + c)
+						& word(mask2, row2, stride2, x2 + c);
+				int n = width - c;
+				if (n < 64) {
+					bits &= (1L << n) - 1;
+				}
+				if (bits != 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns 64 bits of a mask row starting at the given column. Columns
+	 * past the end of the row read as transparent.
+	 */
+	private static long word(long[] mask, int row, int stride, int column) {
+		int i = column >>> 6;
+		int shift = column & 63;
+		long bits = mask[row + i] >>> shift;
+		if (shift != 0 && i + 1 < stride) {
+			bits |= mask[row + i + 1] << (64 - shift);
+		}
+		return bits;
+	}
+
+}
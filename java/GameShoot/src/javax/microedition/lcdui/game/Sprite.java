@@ -82,11 +82,27 @@ public class Sprite extends Layer {
 	 */
 	private static final int ALPHA_BITMASK = 0xff000000;
 
+	/**
+	 * Pixel buffers for pixel-level collision detection against a
+	 * TiledLayer or an Image, grown when a larger overlap is tested. The
+	 * overlap lies within the frame of this Sprite, so they never grow
+	 * beyond the frame size. Like the rest of the Sprite state they are
+	 * only used by the thread that tests this Sprite.
+	 */
+	private int[] pixelBuffer1 = new int[0];
+	private int[] pixelBuffer2 = new int[0];
+
 	/**
 	 * Source image
 	 */
 	Bitmap sourceImage;
 
+	/**
+	 * Opacity masks of the frames of the source image, shared with other
+	 * Sprites using the same image. <code>null</code> when there is no image.
+	 */
+	AlphaMask alphaMask;
+
 	/**
 	 * The number of frames
 	 */
@@ -112,10 +128,18 @@ public class Sprite extends Layer {
 	int srcFrameHeight;
 
 	/**
-	 * The sequence in which to display the Sprite frames
+	 * The sequence in which to display the Sprite frames. Only the first
+	 * {@link #sequenceLength} entries are used; the array is kept and reused
+	 * by {@link #setFrameSequence} when it is long enough, so switching
+	 * between sequences does not allocate.
 	 */
 	int[] frameSequence;
 
+	/**
+	 * The number of entries in use in frameSequence
+	 */
+	int sequenceLength;
+
 	/**
 	 * The sequence index
 	 */
@@ -213,7 +237,8 @@ public class Sprite extends Layer {
 	public Sprite(Bitmap image) {
 		super(image.getWidth(), image.getHeight());
 
-		initializeFrames(image, image.getWidth(), image.getHeight(), false);
+		initializeFrames(image, image.getWidth(), image.getHeight(),
+				image.getWidth(), image.getHeight(), false);
 
 		// initialize collision rectangle
 		initCollisionRectBounds();
@@ -263,19 +288,60 @@ public class Sprite extends Layer {
 	 *             of the <code>frameHeight</code>
 	 */
 	public Sprite(Bitmap image, int frameWidth, int frameHeight) {
+		// if img is null img.getWidth() will throw NullPointerException
+		this(image, image.getWidth(), image.getHeight(), frameWidth,
+				frameHeight);
+	}
+
+	/**
+	 * Creates a new animated Sprite whose source image size is given
+	 * explicitly instead of being read from the image.
+	 * <p>
+	 * The image itself is only needed for painting and for pixel-level
+	 * collision detection, so it may be <code>null</code>. Such a Sprite can
+	 * still be moved, animated and tested for collisions using its collision
+	 * rectangle, which allows game logic to run without a graphics
+	 * environment.
+	 * <p>
+	 * 
+	 * @param image
+	 *            the <code>Image</code> to use for <code>Sprite</code>, or
+	 *            <code>null</code>
+	 * @param imageWidth
+	 *            the width, in pixels, of the source image
+	 * @param imageHeight
+	 *            the height, in pixels, of the source image
+	 * @param frameWidth
+	 *            the <code>width</code>, in pixels, of the individual raw
+	 *            frames
+	 * @param frameHeight
+	 *            the <code>height</code>, in pixels, of the individual raw
+	 *            frames
+	 * @throws IllegalArgumentException
+	 *             if <code>frameHeight</code> or <code>frameWidth</code> is
+	 *             less than <code>1</code>
+	 * @throws IllegalArgumentException
+	 *             if <code>imageWidth</code> is not an integer multiple of
+	 *             the <code>frameWidth</code>
+	 * @throws IllegalArgumentException
+	 *             if <code>imageHeight</code> is not an integer multiple of
+	 *             the <code>frameHeight</code>
+	 */
+	public Sprite(Bitmap image, int imageWidth, int imageHeight,
+			int frameWidth, int frameHeight) {
 
 		super(frameWidth, frameHeight);
-		// if img is null img.getWidth() will throw NullPointerException
 		if ((frameWidth < 1 || frameHeight < 1)
-				|| ((image.getWidth() % frameWidth) != 0)
-				|| ((image.getHeight() % frameHeight) != 0)) {
+				|| ((imageWidth % frameWidth) != 0)
+				|| ((imageHeight % frameHeight) != 0)) {
 			throw new IllegalArgumentException();
 		}
 
 		// construct the array of images that
 		// we use as "frames" for the sprite.
 		// use default frame , sequence index = 0
-		initializeFrames(image, frameWidth, frameHeight, false);
+		initializeFrames(image, imageWidth, imageHeight, frameWidth,
+				frameHeight, false);
 
 		// initialize collision rectangle
 		initCollisionRectBounds();
@@ -308,6 +374,7 @@ public class Sprite extends Layer {
 		}
 
 		this.sourceImage = s.sourceImage;// Image.createImage(s.sourceImage);
+		this.alphaMask = s.alphaMask;
 
 		this.numberFrames = s.numberFrames;
 
@@ -344,8 +411,11 @@ public class Sprite extends Layer {
 
 		this.setVisible(s.isVisible());
 
-		this.frameSequence = new int[s.getFrameSequenceLength()];
-		this.setFrameSequence(s.frameSequence);
+		this.sequenceLength = s.sequenceLength;
+		this.frameSequence = new int[s.sequenceLength];
+		System.arraycopy(s.frameSequence, 0, this.frameSequence, 0,
+				s.sequenceLength);
+		this.customSequenceDefined = true;
 		this.setFrame(s.getFrame());
 
 		this.setRefPixelPosition(s.getRefPixelX(), s.getRefPixelY());
@@ -459,7 +529,7 @@ public class Sprite extends Layer {
 	 * @see #getFrame
 	 */
 	public void setFrame(int sequenceIndex) {
-		if (sequenceIndex < 0 || sequenceIndex >= frameSequence.length) {
+		if (sequenceIndex < 0 || sequenceIndex >= sequenceLength) {
 			throw new IndexOutOfBoundsException();
 		}
 		this.sequenceIndex = sequenceIndex;
@@ -502,7 +572,90 @@ public class Sprite extends Layer {
 	 * @see #getRawFrameCount
 	 */
 	public int getFrameSequenceLength() {
-		return frameSequence.length;
+		return sequenceLength;
+	}
+
+	/**
+	 * Gets the image containing the Sprite's raw frames.
+	 * 
+	 * @return the source image of this Sprite
+	 */
+	public final Bitmap getImage() {
+		return sourceImage;
+	}
+
+	/**
+	 * Gets the horizontal position, in the source image, of the raw frame
+	 * that is currently displayed.
+	 * <p>
+	 * Together with {@link #getFrameImageY} and {@link #getImage} this allows
+	 * the current frame to be drawn by a different thread without touching
+	 * the Sprite itself.
+	 * 
+	 * @return the x coordinate of the current frame in the source image
+	 * @see #getFrameImageY
+	 */
+	public final int getFrameImageX() {
+		return frameCoordsX[frameSequence[sequenceIndex]];
+	}
+
+	/**
+	 * Gets the vertical position, in the source image, of the raw frame that
+	 * is currently displayed.
+	 * 
+	 * @return the y coordinate of the current frame in the source image
+	 * @see #getFrameImageX
+	 */
+	public final int getFrameImageY() {
+		return frameCoordsY[frameSequence[sequenceIndex]];
+	}
+
+	/**
+	 * Gets the left edge of this Sprite's collision rectangle in the painter's
+	 * coordinate system, with the current transform applied.
+	 * <p>
+	 * Together with {@link #getCollisionTop}, {@link #getCollisionRight} and
+	 * {@link #getCollisionBottom} this allows collision checks against objects
+	 * that are not Sprites. The right and bottom edges are exclusive.
+	 * 
+	 * @return the left edge of the collision rectangle
+	 * @see #defineCollisionRectangle
+	 */
+	public final int getCollisionLeft() {
+		return x + t_collisionRectX;
+	}
+
+	/**
+	 * Gets the top edge of this Sprite's collision rectangle in the painter's
+	 * coordinate system, with the current transform applied.
+	 * 
+	 * @return the top edge of the collision rectangle
+	 * @see #getCollisionLeft
+	 */
+	public final int getCollisionTop() {
+		return y + t_collisionRectY;
+	}
+
+	/**
+	 * Gets the exclusive right edge of this Sprite's collision rectangle in
+	 * the painter's coordinate system, with the current transform applied.
+	 * 
+	 * @return the right edge of the collision rectangle
+	 * @see #getCollisionLeft
+	 */
+	public final int getCollisionRight() {
+		return x + t_collisionRectX + t_collisionRectWidth;
+	}
+
+	/**
+	 * Gets the exclusive bottom edge of this Sprite's collision rectangle in
+	 * the painter's coordinate system, with the current transform applied.
+	 * 
+	 * @return the bottom edge of the collision rectangle
+	 * @see #getCollisionLeft
+	 */
+	public final int getCollisionBottom() {
+		return y + t_collisionRectY + t_collisionRectHeight;
 	}
 
 	/**
@@ -517,7 +670,7 @@ public class Sprite extends Layer {
 	 * @see #prevFrame
 	 */
 	public void nextFrame() {
-		sequenceIndex = (sequenceIndex + 1) % frameSequence.length;
+		sequenceIndex = (sequenceIndex + 1) % sequenceLength;
 	}
 
 	/**
@@ -533,7 +686,7 @@ public class Sprite extends Layer {
 	 */
 	public void prevFrame() {
 		if (sequenceIndex == 0) {
-			sequenceIndex = frameSequence.length - 1;
+			sequenceIndex = sequenceLength - 1;
 		} else {
 			sequenceIndex--;
 		}
@@ -651,11 +804,12 @@ public class Sprite extends Layer {
 			// revert to the default sequence
 			sequenceIndex = 0;
 			customSequenceDefined = false;
-			frameSequence = new int[numberFrames];
+			ensureSequenceCapacity(numberFrames);
 			// copy frames indices into frameSequence
 			for (int i = 0; i < numberFrames; i++) {
 				frameSequence[i] = i;
 			}
+			sequenceLength = numberFrames;
 			return;
 		}
 
@@ -669,11 +823,25 @@ public class Sprite extends Layer {
 			}
 		}
 		customSequenceDefined = true;
-		frameSequence = new int[sequence.length];
+		ensureSequenceCapacity(sequence.length);
 		System.arraycopy(sequence, 0, frameSequence, 0, sequence.length);
+		sequenceLength = sequence.length;
 		sequenceIndex = 0;
 	}
 
+	/**
+	 * Makes sure frameSequence can hold at least the given number of entries,
+	 * replacing it only when it is too short.
+	 * 
+	 * @param length
+	 *            the required number of entries
+	 */
+	private void ensureSequenceCapacity(int length) {
+		if (frameSequence == null || frameSequence.length < length) {
+			frameSequence = new int[length];
+		}
+	}
+
 	/**
 	 * Changes the Image containing the Sprite's frames.
 	 * <p>
@@ -770,7 +938,8 @@ public class Sprite extends Layer {
 			setWidthImpl(frameWidth);
 			setHeightImpl(frameHeight);
 
-			initializeFrames(img, frameWidth, frameHeight, maintainCurFrame);
+			initializeFrames(img, img.getWidth(), img.getHeight(), frameWidth,
+					frameHeight, maintainCurFrame);
 
 			// initialize collision rectangle
 			initCollisionRectBounds();
@@ -791,7 +960,8 @@ public class Sprite extends Layer {
 
 		} else {
 			// just reinitialize the animation frames.
-			initializeFrames(img, frameWidth, frameHeight, maintainCurFrame);
+			initializeFrames(img, img.getWidth(), img.getHeight(), frameWidth,
+					frameHeight, maintainCurFrame);
 		}
 
 	}
@@ -991,29 +1161,35 @@ public class Sprite extends Layer {
 				int intersectWidth = Math.abs(intersectRight - intersectLeft);
 				int intersectHeight = Math.abs(intersectBottom - intersectTop);
 
-				// have the coordinates in painter space,
-				// need coordinates of top left and width, height
-				// in source image of Sprite.
-
-				int thisImageXOffset = getImageTopLeftX(intersectLeft,
-						intersectTop, intersectRight, intersectBottom);
-
-				int thisImageYOffset = getImageTopLeftY(intersectLeft,
-						intersectTop, intersectRight, intersectBottom);
-
-				int otherImageXOffset = s.getImageTopLeftX(intersectLeft,
-						intersectTop, intersectRight, intersectBottom);
-
-				int otherImageYOffset = s.getImageTopLeftY(intersectLeft,
-						intersectTop, intersectRight, intersectBottom);
+				// the collision rectangles lie outside the frames, where
+				// pixels are transparent
+				if (intersectRight <= intersectLeft
+						|| intersectBottom <= intersectTop) {
+					return false;
+				}
 
-				// check if opaque pixels intersect.
+				// without pixel data only the collision rectangles
+				// can be checked
+				if (this.alphaMask == null || s.alphaMask == null) {
+					return true;
+				}
 
-				return doPixelCollision(thisImageXOffset, thisImageYOffset,
-						otherImageXOffset, otherImageYOffset, this.sourceImage,
-						this.t_currentTransformation, s.sourceImage,
-						s.t_currentTransformation, intersectWidth,
-						intersectHeight);
+				// check if opaque pixels intersect, using the cached
+				// masks of the current frames. The masks are in painter
+				// orientation, so the intersecting region is at the same
+				// offset from the top left of each Sprite.
+
+				int thisTransform = this.t_currentTransformation;
+				int otherTransform = s.t_currentTransformation;
+				return AlphaMask.overlaps(this.alphaMask.getMask(
+						this.frameSequence[this.sequenceIndex], thisTransform),
+						this.alphaMask.getStride(thisTransform), 
+						intersectLeft - this.x, intersectTop - this.y, 
+						s.alphaMask.getMask(s.frameSequence[s.sequenceIndex],
+								otherTransform), 
+						s.alphaMask.getStride(otherTransform),
+						intersectLeft - s.x, intersectTop - s.y, 
+						intersectWidth, intersectHeight);
 
 			} else {
 				// collides!
@@ -1374,6 +1550,10 @@ public class Sprite extends Layer {
 	 * 
 	 * @param image
 	 *            Image to use for Sprite
+	 * @param imageW
+	 *            width, in pixels, of the image
+	 * @param imageH
+	 *            height, in pixels, of the image
 	 * @param fWidth
 	 *            width, in pixels, of the individual raw frames
 	 * @param fHeight
@@ -1381,16 +1561,15 @@ public class Sprite extends Layer {
 	 * @param maintainCurFrame
 	 *            true if Current Frame is maintained
 	 */
-	private void initializeFrames(Bitmap image, int fWidth, int fHeight,
-			boolean maintainCurFrame) {
-
-		int imageW = image.getWidth();
-		int imageH = image.getHeight();
+	private void initializeFrames(Bitmap image, int imageW, int imageH,
+			int fWidth, int fHeight, boolean maintainCurFrame) {
 
 		int numHorizontalFrames = imageW / fWidth;
 		int numVerticalFrames = imageH / fHeight;
 
 		sourceImage = image;
+		alphaMask = (image != null) ? AlphaMask.forImage(image, imageW,
+				imageH, fWidth, fHeight) : null;
 
 		srcFrameWidth = fWidth;
 		srcFrameHeight = fHeight;
@@ -1406,6 +1585,7 @@ public class Sprite extends Layer {
 
 		if (!customSequenceDefined) {
 			frameSequence = new int[numberFrames];
+			sequenceLength = numberFrames;
 		}
 
 		int currentFrame = 0;
@@ -1503,7 +1683,7 @@ public class Sprite extends Layer {
 	 * 
 	 * @return True if there is a pixel level collision
 	 */
-	private static boolean doPixelCollision(int image1XOffset,
+	private boolean doPixelCollision(int image1XOffset,
 			int image1YOffset, int image2XOffset, int image2YOffset,
 			Bitmap image1, int transform1, Bitmap image2, int transform2,
 			int width, int height) {
@@ -1519,8 +1699,12 @@ public class Sprite extends Layer {
 
 		int numPixels = height * width;
 
-		int[] argbData1 = new int[numPixels];
-		int[] argbData2 = new int[numPixels];
+		if (pixelBuffer1.length < numPixels) {
+			pixelBuffer1 = new int[numPixels];
+			pixelBuffer2 = new int[numPixels];
+		}
+		int[] argbData1 = pixelBuffer1;
+		int[] argbData2 = pixelBuffer2;
 
 		if (0x0 != (transform1 & INVERTED_AXES)) {
 			// inverted axes